@@ -0,0 +1,35 @@
+package algorithms;
+
+import benchmarks.TSDGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for reading a <code>.tsd</code> file into a {@link DataSet}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DataSetBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int numberOfInstances;
+
+    private Path tsdFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        tsdFile = TSDGenerator.generateFile(numberOfInstances, TSDGenerator.DEFAULT_LABELS, TSDGenerator.DEFAULT_SEED);
+    }
+
+    @Benchmark
+    public DataSet fromTSDFile() throws IOException {
+        return DataSet.fromTSDFile(tsdFile);
+    }
+}
@@ -0,0 +1,55 @@
+package algorithms;
+
+import benchmarks.TSDGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for a full run of {@link KMeansClusterer} and of {@link HamerlyKMeansClusterer}, from choosing the initial
+ * centroids until the centroids stop moving or the maximum number of iterations is reached. The run happens on the
+ * benchmark thread with no UI updates. Better seeding shows up as fewer iterations, and so as a shorter run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class KMeansClustererBenchmark {
+
+    private static final int MAX_ITERATIONS = 50;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int numberOfInstances;
+
+    @Param({"4"})
+    private int numberOfClusters;
+
+    @Param({"RANDOM", "K_MEANS_PLUS_PLUS", "K_MEANS_PARALLEL"})
+    private CentroidSeeding seeding;
+
+    private DataSet dataset;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataset = TSDGenerator.generateDataSet(numberOfInstances, TSDGenerator.DEFAULT_LABELS,
+                                               TSDGenerator.DEFAULT_SEED);
+    }
+
+    @Benchmark
+    public int run() {
+        KMeansClusterer clusterer = new KMeansClusterer(dataset, MAX_ITERATIONS, MAX_ITERATIONS, numberOfClusters,
+                                                        numberOfInstances, true, null);
+        clusterer.setSeeding(seeding);
+        return clusterer.run(AlgorithmListener.NONE);
+    }
+
+    @Benchmark
+    public int runHamerly() {
+        KMeansClusterer clusterer = new HamerlyKMeansClusterer(dataset, MAX_ITERATIONS, MAX_ITERATIONS,
+                                                               numberOfClusters, numberOfInstances, true, null);
+        clusterer.setSeeding(seeding);
+        return clusterer.run(AlgorithmListener.NONE);
+    }
+}
@@ -0,0 +1,133 @@
+package benchmarks;
+
+import algorithms.DataSet;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Generates synthetic data in the tab-separated data format for the benchmarks. The instances are drawn from one
+ * Gaussian blob per label, with the blob centers spread out on a circle, and their coordinates are rounded to two
+ * decimal places as the SRS requires. The same size, number of labels and seed always produce the same data, so
+ * benchmark results can be reproduced.
+ * <p>
+ * To write a data file, run <code>TSDGenerator &lt;instances&gt; &lt;labels&gt; &lt;file&gt; [seed]</code>.
+ */
+public final class TSDGenerator {
+
+    public static final long DEFAULT_SEED   = 219L;
+    public static final int  DEFAULT_LABELS = 4;
+
+    private static final double BLOB_RADIUS = 50;
+    private static final double BLOB_SPREAD = 12;
+
+    private final Random random;
+    private final int    numberOfLabels;
+
+    private TSDGenerator(int numberOfLabels, long seed) {
+        this.random = new Random(seed);
+        this.numberOfLabels = numberOfLabels;
+    }
+
+    /** Writes the given number of instances, one <code>.tsd</code> line each. */
+    public static void write(Writer out, int numberOfInstances, int numberOfLabels, long seed) throws IOException {
+        TSDGenerator generator = new TSDGenerator(numberOfLabels, seed);
+        StringBuilder line = new StringBuilder(48);
+        for (int i = 0; i < numberOfInstances; i++) {
+            int label = i % numberOfLabels;
+            line.setLength(0);
+            line.append("@Instance").append(i).append('\t')
+                .append("label").append(label).append('\t')
+                .append(generator.x(label)).append(',')
+                .append(generator.y(label)).append('\n');
+            out.append(line);
+        }
+    }
+
+    /** @return the generated data as a single {@link String}, as the text area would hand it over */
+    public static String generateString(int numberOfInstances, int numberOfLabels, long seed) {
+        StringBuilderWriter out = new StringBuilderWriter(numberOfInstances * 40);
+        try {
+            write(out, numberOfInstances, numberOfLabels, seed);
+        } catch (IOException e) {
+            throw new AssertionError(e); // writing to memory cannot fail
+        }
+        return out.toString();
+    }
+
+    /** @return a temporary <code>.tsd</code> file containing the generated data, deleted when the JVM exits */
+    public static Path generateFile(int numberOfInstances, int numberOfLabels, long seed) throws IOException {
+        Path file = Files.createTempFile("generated-" + numberOfInstances + "-", ".tsd");
+        file.toFile().deleteOnExit();
+        writeFile(file, numberOfInstances, numberOfLabels, seed);
+        return file;
+    }
+
+    /** @return a dataset with the same instances as the generated data */
+    public static DataSet generateDataSet(int numberOfInstances, int numberOfLabels, long seed) {
+        TSDGenerator generator = new TSDGenerator(numberOfLabels, seed);
+        DataSet      dataSet   = new DataSet(numberOfInstances);
+        for (int i = 0; i < numberOfInstances; i++) {
+            int label = i % numberOfLabels;
+            dataSet.addInstance("@Instance" + i, "label" + label, generator.x(label), generator.y(label));
+        }
+        return dataSet;
+    }
+
+    private static void writeFile(Path file, int numberOfInstances, int numberOfLabels, long seed) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            write(out, numberOfInstances, numberOfLabels, seed);
+        }
+    }
+
+    private double x(int label) {
+        return round(BLOB_RADIUS * Math.cos(2 * Math.PI * label / numberOfLabels) + BLOB_SPREAD * random.nextGaussian());
+    }
+
+    private double y(int label) {
+        return round(BLOB_RADIUS * Math.sin(2 * Math.PI * label / numberOfLabels) + BLOB_SPREAD * random.nextGaussian());
+    }
+
+    private static double round(double value) { return Math.round(value * 100) / 100.0; }
+
+    /** An unsynchronized {@link Writer} into a {@link StringBuilder}. */
+    private static final class StringBuilderWriter extends Writer {
+
+        private final StringBuilder builder;
+
+        StringBuilderWriter(int capacity) { builder = new StringBuilder(capacity); }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) { builder.append(cbuf, off, len); }
+
+        @Override
+        public Writer append(CharSequence csq) {
+            builder.append(csq);
+            return this;
+        }
+
+        @Override
+        public void flush() { }
+
+        @Override
+        public void close() { }
+
+        @Override
+        public String toString() { return builder.toString(); }
+    }
+
+    public static void main(String... args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: TSDGenerator <instances> <labels> <file> [seed]");
+            System.exit(1);
+        }
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+        writeFile(Paths.get(args[2]), Integer.parseInt(args[0]), Integer.parseInt(args[1]), seed);
+    }
+}
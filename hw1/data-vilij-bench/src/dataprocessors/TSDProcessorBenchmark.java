@@ -0,0 +1,75 @@
+package dataprocessors;
+
+import benchmarks.TSDGenerator;
+import javafx.embed.swing.JFXPanel;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for parsing <code>.tsd</code> data, from the text area and from a file, and for exporting the parsed data
+ * to a chart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TSDProcessorBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int numberOfInstances;
+
+    private String       tsdString;
+    private Path         tsdFile;
+    private TSDProcessor processor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        tsdString = TSDGenerator.generateString(numberOfInstances, TSDGenerator.DEFAULT_LABELS,
+                                                TSDGenerator.DEFAULT_SEED);
+        tsdFile = TSDGenerator.generateFile(numberOfInstances, TSDGenerator.DEFAULT_LABELS, TSDGenerator.DEFAULT_SEED);
+        processor = new TSDProcessor();
+    }
+
+    @Benchmark
+    public TSDProcessor processString() throws Exception {
+        processor.processString(tsdString);
+        return processor;
+    }
+
+    @Benchmark
+    public TSDProcessor processFile() throws Exception {
+        processor.processFile(tsdFile);
+        return processor;
+    }
+
+    /** Only the export itself is measured: the data is parsed once, and every invocation gets an empty chart. */
+    @State(Scope.Thread)
+    public static class ParsedData {
+
+        private TSDProcessor              processor;
+        private LineChart<Number, Number> chart;
+
+        @Setup(Level.Invocation)
+        public void setUp(TSDProcessorBenchmark benchmark) throws Exception {
+            if (processor == null) {
+                new JFXPanel(); // starts the JavaFX toolkit, which the chart needs
+                processor = new TSDProcessor();
+                processor.processString(benchmark.tsdString);
+            }
+            chart = new LineChart<>(new NumberAxis(), new NumberAxis());
+        }
+    }
+
+    @Benchmark
+    public LineChart<Number, Number> toChartData(ParsedData data) {
+        data.processor.toChartData(data.chart);
+        return data.chart;
+    }
+}
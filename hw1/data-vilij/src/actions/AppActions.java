@@ -21,14 +21,15 @@ import vilij.settings.PropertyTypes;
 import vilij.templates.ApplicationTemplate;
 
 import javax.imageio.ImageIO;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Map;
-import java.util.Scanner;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static settings.AppPropertyTypes.LOAD_WORK_TITLE;
@@ -93,26 +94,27 @@ public final class AppActions implements ActionComponent {
 
     @Override
     public void handleSaveRequest() {
-        processTextAreaInput(); // update TSDProcessor with current text
-        AppData dataComponent  = (AppData) applicationTemplate.getDataComponent();
-
-        if(dataComponent.getDataIsValid() && isUnsaved.getValue()) {
-            if(dataFilePath != null) {
+        processTextAreaInput(() -> { // update TSDProcessor with current text, then save it
+            AppData dataComponent  = (AppData) applicationTemplate.getDataComponent();
+
+            if(dataComponent.getDataIsValid() && isUnsaved.getValue()) {
+                if(dataFilePath != null) {
+                    try {
+                        save();
+                    } catch (IOException e) {
+                        errorHandlingHelper();
+                    }
+                }
                 try {
-                    save();
-                } catch (IOException e) {
+                    saveRequestHandler();
+                    isUnsaved.set(false);
+                    ((AppUI) applicationTemplate.getUIComponent()).getSaveButton().setDisable(true);
+                    }
+                catch (IOException e) {
                     errorHandlingHelper();
                 }
             }
-            try {
-                saveRequestHandler();
-                isUnsaved.set(false);
-                ((AppUI) applicationTemplate.getUIComponent()).getSaveButton().setDisable(true);
-                }
-            catch (IOException e) {
-                errorHandlingHelper();
-            }
-        }
+        });
     }
 
     @Override
@@ -140,26 +142,22 @@ public final class AppActions implements ActionComponent {
 
         if(selected != null) {
 
-            StringBuilder data = new StringBuilder();
             firstTenLines = new ArrayList<>(10);
-            int i = 0;
 
-            try {
-                Scanner scanner = new Scanner(selected);
-
-                while (scanner.hasNextLine()) {
-                    String lineOfData = scanner.nextLine();
-                    data.append(lineOfData).append(System.getProperty("line.separator"));
-                    if (i < 10) {
-                        firstTenLines.add(lineOfData);
-                        i++;
-                    }
-                }
+            try (BufferedReader reader = Files.newBufferedReader(selected.toPath())) {
+                String lineOfData;
+                while (firstTenLines.size() < 10 && (lineOfData = reader.readLine()) != null)
+                    firstTenLines.add(lineOfData);
+            } catch (IOException e) {
+                loadErrHandlingHelper();
+                return;
+            }
 
-                loadedFileName = formatPathString(selected.getPath());
+            loadedFileName = formatPathString(selected.getPath());
 
-                applicationTemplate.getUIComponent().clear();
-                ((AppData) applicationTemplate.getDataComponent()).loadData(data.toString());
+            applicationTemplate.getUIComponent().clear();
+            // parsed straight from the mapped file, in the background
+            dataComponent.loadData(selected.toPath(), () -> {
                 boolean duplicateFound = appUI.duplicateFound;
 
                 if(!duplicateFound && dataComponent.getDataIsValid()) {
@@ -169,10 +167,7 @@ public final class AppActions implements ActionComponent {
                     wasLoaded.set(true);
                     isUnsaved.set(false);
                 } else if(duplicateFound || !dataComponent.getDataIsValid()) { appUI.showNewDataUI(); }
-
-            } catch (FileNotFoundException e) {
-                loadErrHandlingHelper();
-            }
+            });
         }
     }
 
@@ -330,7 +325,9 @@ public final class AppActions implements ActionComponent {
         String          newLine  = System.getProperty("line.separator") + System.getProperty("line.separator");
         String          dupeMsg  = manager.getPropertyValue(AppPropertyTypes.DUPLICATE_ERROR.name());
         String          dupe     = ((AppUI) applicationTemplate.getUIComponent()).duplicate;
-        dialog.show(errTitle, errMsg + errInput + newLine + dupeMsg + dupe);
+        String          lineMsg  = manager.getPropertyValue(AppPropertyTypes.LINE_OF_ERROR.name());
+        AtomicInteger   dupeLine = ((AppData) applicationTemplate.getDataComponent()).getTSDProcessor().lineOfError;
+        dialog.show(errTitle, errMsg + errInput + newLine + dupeMsg + dupe + newLine + lineMsg + dupeLine);
     }
 
     private void outputDataToTxtArea(){
@@ -375,7 +372,7 @@ public final class AppActions implements ActionComponent {
         ConfirmationDialog dialog = ConfirmationDialog.getDialog();
 
         /* checking if an algorithm is running */
-        if (uiComponent.getAlgorithmThread() == null || !uiComponent.getAlgorithmThread().isAlive()) {
+        if (uiComponent.getAlgorithmRun() == null || uiComponent.getAlgorithmRun().isDone()) {
             return true;
         }
 
@@ -394,17 +391,18 @@ public final class AppActions implements ActionComponent {
 
     /** Loads Tab Separated Data into the DataSet */
     public DataSet getLoadedDataSet(){
-        DataSet dataSet        = new DataSet();
         AppData dataComponent  = (AppData) applicationTemplate.getDataComponent();
         Map<String, String>  dataLabels = dataComponent.getTSDProcessor().getDataLabels();
         Map<String, Point2D> dataPoints = dataComponent.getTSDProcessor().getDataPoints();
-        dataLabels.forEach((x,y) -> dataSet.getLabels().put(x, y));
-        dataPoints.forEach((x,y) -> dataSet.getLocations().put(x, y));
+        DataSet dataSet        = new DataSet(dataLabels.size());
+        dataLabels.forEach((x,y) -> dataSet.addInstance(x, y, dataPoints.get(x).getX(), dataPoints.get(x).getY()));
         return dataSet;
     }
 
-    private void processTextAreaInput(){
-        ((AppData) applicationTemplate.getDataComponent()).loadData(((AppUI) applicationTemplate.getUIComponent()).getCurrentText());
+    /* the text is processed in the background, and whenProcessed is run on the JavaFX application thread after it */
+    private void processTextAreaInput(Runnable whenProcessed){
+        ((AppData) applicationTemplate.getDataComponent()).loadData(((AppUI) applicationTemplate.getUIComponent()).getCurrentText(),
+                                                                    whenProcessed);
     }
 
 }
@@ -14,6 +14,17 @@ public interface Algorithm extends Runnable {
 
     boolean tocontinue();
 
-    void notifyThread();
+    /**
+     * @return the gate a run in stages awaits after every update interval; grant it a step to show the next interval
+     */
+    StepGate getStepGate();
+
+    /**
+     * Runs the algorithm to completion on the calling thread, reporting its results to the given listener instead of
+     * displaying them, so it can run without a display.
+     *
+     * @return the number of iterations run
+     */
+    int run(AlgorithmListener listener);
 
 }
\ No newline at end of file
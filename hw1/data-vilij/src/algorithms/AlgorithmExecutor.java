@@ -0,0 +1,156 @@
+package algorithms;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs algorithms on a bounded pool of named worker threads, instead of a new thread per run. At most a fixed number of
+ * algorithms run at the same time, and a fixed number more may wait for a worker; submitting beyond that is rejected,
+ * so repeated runs cannot pile up threads. The workers are daemon threads, which never keep the application alive.
+ * <p>
+ * Every submitted algorithm gets a {@link Run} to control it by. Pausing and cancelling are cooperative: an algorithm
+ * calls {@link #checkpoint()} after every update interval, which is where a paused run waits and a cancelled run stops.
+ * Outside of a worker of an executor, e.g., in a batch run or a test, {@link #checkpoint()} does nothing.
+ */
+public final class AlgorithmExecutor {
+
+    private static final ThreadLocal<Run> CURRENT = new ThreadLocal<>(); // the run on the calling worker, if any
+
+    private final ThreadPoolExecutor pool;
+
+    /**
+     * @param maxRunning the number of algorithms that may run at the same time
+     * @param maxWaiting the number of algorithms that may wait for a worker to become free
+     */
+    public AlgorithmExecutor(int maxRunning, int maxWaiting) {
+        AtomicInteger workers = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(maxRunning, maxRunning, 0, TimeUnit.MILLISECONDS,
+                                           new ArrayBlockingQueue<>(Math.max(maxWaiting, 1)), runnable -> {
+            Thread worker = new Thread(runnable, "algorithm-" + workers.incrementAndGet());
+            worker.setDaemon(true);
+            return worker;
+        });
+    }
+
+    /**
+     * Runs the algorithm on a worker, as soon as one is free.
+     *
+     * @return the handle of the run
+     * @throws RejectedExecutionException if too many algorithms are already running or waiting, or after shutdown
+     */
+    public Run submit(Algorithm algorithm) {
+        Run run = new Run(algorithm);
+        pool.execute(run::execute);
+        return run;
+    }
+
+    /** Cancels nothing, but stops accepting algorithms; the workers end once the submitted algorithms are done. */
+    public void shutdown() { pool.shutdown(); }
+
+    /**
+     * Called by an algorithm after every update interval. Waits while the run of the calling thread is paused.
+     *
+     * @throws CancellationException if the run of the calling thread was cancelled, to be propagated by the algorithm
+     */
+    public static void checkpoint() {
+        Run run = CURRENT.get();
+        if (run != null)
+            run.checkpoint();
+    }
+
+    /**
+     * The handle of a submitted algorithm. All methods may be called from any thread.
+     */
+    public static final class Run {
+
+        private final Algorithm               algorithm;
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private volatile boolean              cancelled;
+        private Thread                        worker;    // the thread running the algorithm, guarded by this
+        private boolean                       paused;    // guarded by this
+
+        private Run(Algorithm algorithm) { this.algorithm = algorithm; }
+
+        public Algorithm getAlgorithm() { return algorithm; }
+
+        /**
+         * @return a future that completes once the algorithm has returned, exceptionally with a
+         * {@link CancellationException} if the run was cancelled, or with the exception the algorithm threw
+         */
+        public CompletableFuture<Void> completion() { return completion; }
+
+        public boolean isDone() { return completion.isDone(); }
+
+        public synchronized boolean isPaused() { return paused; }
+
+        /** Makes the algorithm wait at its next checkpoint, until resumed or cancelled. */
+        public synchronized void pause() { paused = true; }
+
+        public synchronized void resume() {
+            paused = false;
+            notifyAll();
+        }
+
+        /**
+         * Stops the algorithm at its next checkpoint, or at its {@link StepGate} if it runs in stages, or before it starts
+         * if it is still waiting for a worker. A running algorithm is also interrupted, so it does not stay blocked in any
+         * other wait. The run is only done once the algorithm has actually returned.
+         */
+        public void cancel() {
+            cancelled = true;
+            algorithm.getStepGate().cancel();
+            synchronized (this) {
+                if (worker != null)
+                    worker.interrupt();
+                notifyAll();
+            }
+        }
+
+        private void execute() {
+            if (cancelled) {
+                completion.completeExceptionally(new CancellationException());
+                return;
+            }
+            synchronized (this) {
+                worker = Thread.currentThread();
+            }
+            CURRENT.set(this);
+            try {
+                algorithm.run();
+                if (cancelled)
+                    throw new CancellationException();
+                completion.complete(null);
+            } catch (Throwable e) {
+                completion.completeExceptionally(e);
+                if (!(e instanceof CancellationException))
+                    e.printStackTrace();
+            } finally {
+                CURRENT.remove();
+                synchronized (this) {
+                    worker = null;
+                    Thread.interrupted(); // the worker is reused, so an interrupt meant for this run must not leak
+                }
+            }
+        }
+
+        private void checkpoint() {
+            synchronized (this) {
+                while (paused && !cancelled) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            if (cancelled)
+                throw new CancellationException();
+        }
+    }
+}
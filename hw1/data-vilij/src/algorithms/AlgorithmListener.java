@@ -0,0 +1,31 @@
+package algorithms;
+
+/**
+ * Receives the results of an algorithm as it runs. An algorithm run through {@link Algorithm#run(AlgorithmListener)}
+ * reports to its listener after every update interval and after its final iteration, on the thread running the
+ * algorithm, and never touches the UI itself. A listener can read the current result from the algorithm, i.e., the
+ * labels in the algorithm's {@link DataSet} for a {@link Clusterer}, or the {@link Classifier#getOutput() output line}
+ * for a {@link Classifier}.
+ */
+@FunctionalInterface
+public interface AlgorithmListener {
+
+    /** A listener that ignores everything, for running an algorithm to completion at full speed. */
+    AlgorithmListener NONE = (algorithm, iteration) -> { };
+
+    /**
+     * Called when an update interval is completed.
+     *
+     * @param algorithm the running algorithm
+     * @param iteration the number of iterations run so far
+     */
+    void intervalCompleted(Algorithm algorithm, int iteration);
+
+    /**
+     * Called once the algorithm has stopped, after the last call to {@link #intervalCompleted}.
+     *
+     * @param algorithm  the algorithm
+     * @param iterations the total number of iterations run
+     */
+    default void finished(Algorithm algorithm, int iterations) { }
+}
@@ -0,0 +1,124 @@
+package algorithms;
+
+import vilij.templates.ApplicationTemplate;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs a clustering or classification algorithm on a <code>.tsd</code> file without the UI, so it needs no display.
+ * The algorithm runs at full speed on the calling thread, and the labelled instances are written to an output
+ * <code>.tsd</code> file. For a classifier, whose output is a line rather than labels, the final line is printed.
+ * <p>
+ * Usage: <code>BatchRunner &lt;input.tsd&gt; &lt;algorithm class&gt; &lt;output.tsd&gt; [max iterations]
+ * [number of clusters]</code>, e.g. <code>BatchRunner data.tsd algorithms.KMeansClusterer labelled.tsd 100 3</code>.
+ * <p>
+ * With <code>--sweep</code>, a {@link ClusteringSweep} runs every combination of the given clustering algorithms,
+ * numbers of clusters and seeds, prints the score of each, and writes the instances as labelled by the best one:
+ * <code>BatchRunner --sweep &lt;input.tsd&gt; &lt;algorithm class&gt;[,&lt;algorithm class&gt;...] &lt;output.tsd&gt;
+ * &lt;max iterations&gt; &lt;min clusters&gt; &lt;max clusters&gt; [number of seeds]</code>.
+ */
+public final class BatchRunner {
+
+    private static final int    DEFAULT_MAX_ITERATIONS     = 1000;
+    private static final int    DEFAULT_NUMBER_OF_CLUSTERS = 2;
+    private static final int    DEFAULT_NUMBER_OF_SEEDS    = 3;
+    private static final String SWEEP                      = "--sweep";
+
+    private BatchRunner() { }
+
+    /**
+     * Creates an algorithm through the same constructors the UI uses, with no {@link ApplicationTemplate}. The update
+     * interval is the maximum number of iterations, so the listener only hears about the final iteration.
+     */
+    public static Algorithm newAlgorithm(String algorithmClassName, DataSet dataSet, int maxIterations,
+                                         int numberOfClusters) throws ReflectiveOperationException {
+        Class<?> algorithmClass = Class.forName(algorithmClassName);
+        if (Clusterer.class.isAssignableFrom(algorithmClass))
+            return (Algorithm) algorithmClass
+                    .getConstructor(DataSet.class, int.class, int.class, int.class, int.class, boolean.class, ApplicationTemplate.class)
+                    .newInstance(dataSet, maxIterations, maxIterations, numberOfClusters, dataSet.size(), true, null);
+        if (Classifier.class.isAssignableFrom(algorithmClass))
+            return (Algorithm) algorithmClass
+                    .getConstructor(DataSet.class, int.class, int.class, boolean.class, ApplicationTemplate.class)
+                    .newInstance(dataSet, maxIterations, maxIterations, true, null);
+        throw new ClassNotFoundException(algorithmClassName + " is neither a clusterer nor a classifier");
+    }
+
+    /**
+     * Loads the input file, runs the algorithm to completion and writes the labelled instances. A
+     * {@link MiniBatchKMeansClusterer} streams the input file instead of loading it, so files of any size can be
+     * clustered.
+     *
+     * @return the number of iterations run
+     */
+    public static int run(Path input, String algorithmClassName, Path output, int maxIterations,
+                          int numberOfClusters, AlgorithmListener listener) throws Exception {
+        if (Class.forName(algorithmClassName) == MiniBatchKMeansClusterer.class) { // streams the file instead
+            MiniBatchKMeansClusterer clusterer = new MiniBatchKMeansClusterer(
+                    input, MiniBatchKMeansClusterer.DEFAULT_BATCH_SIZE, maxIterations, maxIterations, numberOfClusters);
+            int iterations = clusterer.run(listener);
+            clusterer.writeLabelledFile(output);
+            return iterations;
+        }
+        DataSet   dataSet    = DataSet.fromTSDFile(input);
+        Algorithm algorithm  = newAlgorithm(algorithmClassName, dataSet, maxIterations, numberOfClusters);
+        int       iterations = algorithm.run(listener);
+        dataSet.toTSDFile(output);
+        return iterations;
+    }
+
+    /**
+     * Loads the input file once, runs the sweep on all available processors, and writes the best labelled instances.
+     *
+     * @return the results of the sweep, in the order of the grid
+     */
+    public static List<ClusteringSweep.Result> sweep(Path input, List<String> algorithmClassNames, Path output,
+                                                     int maxIterations, int minClusters, int maxClusters,
+                                                     int numberOfSeeds) throws Exception {
+        DataSet    dataSet = DataSet.fromTSDFile(input);
+        List<Long> seeds   = new ArrayList<>();
+        for (long seed = 1; seed <= numberOfSeeds; seed++)
+            seeds.add(seed);
+        List<ClusteringSweep.Result> results = new ClusteringSweep(dataSet, maxIterations).run(
+                ClusteringSweep.grid(algorithmClassNames, minClusters, maxClusters, seeds),
+                Runtime.getRuntime().availableProcessors());
+        ClusteringSweep.best(results).getDataSet().toTSDFile(output);
+        return results;
+    }
+
+    public static void main(String... args) throws Exception {
+        if (args.length >= 7 && args[0].equals(SWEEP)) {
+            List<ClusteringSweep.Result> results = sweep(
+                    Paths.get(args[1]), Arrays.asList(args[2].split(",")), Paths.get(args[3]),
+                    Integer.parseInt(args[4]), Integer.parseInt(args[5]), Integer.parseInt(args[6]),
+                    args.length > 7 ? Integer.parseInt(args[7]) : DEFAULT_NUMBER_OF_SEEDS);
+            results.forEach(System.out::println);
+            System.out.println("Best: " + ClusteringSweep.best(results));
+            return;
+        }
+        if (args.length < 3) {
+            System.err.println("Usage: BatchRunner <input.tsd> <algorithm class> <output.tsd> [max iterations] "
+                               + "[number of clusters]");
+            System.err.println("       BatchRunner --sweep <input.tsd> <algorithm class>[,<algorithm class>...] "
+                               + "<output.tsd> <max iterations> <min clusters> <max clusters> [number of seeds]");
+            System.exit(1);
+        }
+        int maxIterations    = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_MAX_ITERATIONS;
+        int numberOfClusters = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_NUMBER_OF_CLUSTERS;
+        run(Paths.get(args[0]), args[1], Paths.get(args[2]), maxIterations, numberOfClusters, new AlgorithmListener() {
+            @Override
+            public void intervalCompleted(Algorithm algorithm, int iteration) { }
+
+            @Override
+            public void finished(Algorithm algorithm, int iterations) {
+                System.out.println("Iterations: " + iterations);
+                if (algorithm instanceof Classifier)
+                    System.out.println("Output: " + ((Classifier) algorithm).getOutput());
+            }
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package algorithms;
+
+/**
+ * Per-cluster coordinate sums and instance counts, gathered in a single pass over the instances. Each parallel worker
+ * fills its own accumulator for its block of instances, and the partial results are then {@link #merge merged}, so the
+ * update step of k-means needs one linear scan instead of one scan per cluster.
+ */
+final class CentroidAccumulator {
+
+    private final double[] sumXs;
+    private final double[] sumYs;
+    private final int[]    counts;
+
+    CentroidAccumulator(int numberOfClusters) {
+        sumXs = new double[numberOfClusters];
+        sumYs = new double[numberOfClusters];
+        counts = new int[numberOfClusters];
+    }
+
+    void add(int cluster, double x, double y) {
+        sumXs[cluster] += x;
+        sumYs[cluster] += y;
+        counts[cluster]++;
+    }
+
+    /** Adds the instances in <code>[from, to)</code> to the clusters they are assigned to. */
+    void addAll(double[] xs, double[] ys, int[] assignments, int from, int to) {
+        for (int i = from; i < to; i++)
+            add(assignments[i], xs[i], ys[i]);
+    }
+
+    /** Adds another accumulator's sums and counts to this one. */
+    CentroidAccumulator merge(CentroidAccumulator other) {
+        for (int c = 0; c < counts.length; c++) {
+            sumXs[c] += other.sumXs[c];
+            sumYs[c] += other.sumYs[c];
+            counts[c] += other.counts[c];
+        }
+        return this;
+    }
+
+    int getCount(int cluster) { return counts[cluster]; }
+
+    /**
+     * Moves every centroid to the mean of its cluster. A cluster that lost all of its instances keeps its centroid.
+     *
+     * @return whether any centroid moved
+     */
+    boolean updateCentroids(double[] centroidXs, double[] centroidYs) {
+        boolean moved = false;
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] == 0)
+                continue;
+            double x = sumXs[c] / counts[c];
+            double y = sumYs[c] / counts[c];
+            if (x != centroidXs[c] || y != centroidYs[c]) {
+                centroidXs[c] = x;
+                centroidYs[c] = y;
+                moved = true;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Moves every centroid towards the mean of its cluster in this batch, as the update step of mini-batch k-means. Each
+     * centroid has its own learning rate, one over the number of instances assigned to it so far, which makes it the
+     * running mean of all of those instances.
+     *
+     * @param seen per cluster, the number of instances assigned to it in earlier batches; this batch's are added
+     * @return the largest distance any centroid moved
+     */
+    double updateCentroids(double[] centroidXs, double[] centroidYs, long[] seen) {
+        double maxShift = 0;
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] == 0)
+                continue;
+            seen[c] += counts[c];
+            double rate = (double) counts[c] / seen[c];
+            double dx   = (sumXs[c] / counts[c] - centroidXs[c]) * rate;
+            double dy   = (sumYs[c] / counts[c] - centroidYs[c]) * rate;
+            centroidXs[c] += dx;
+            centroidYs[c] += dy;
+            maxShift = Math.max(maxShift, Math.sqrt(dx * dx + dy * dy));
+        }
+        return maxShift;
+    }
+}
@@ -0,0 +1,130 @@
+package algorithms;
+
+/**
+ * The distance bounds Hamerly's algorithm keeps between iterations of k-means, so the assignment step can skip the
+ * instances whose nearest centroid provably has not changed. Every instance has an upper bound on its (Euclidean)
+ * distance to its assigned centroid, and a lower bound on its distance to every other centroid. When the centroids
+ * move, the upper bound grows by the distance its centroid moved and the lower bound shrinks by the largest distance
+ * any other centroid moved. As long as the upper bound stays below the lower bound, or below half the distance from
+ * the assigned centroid to the nearest other centroid, no other centroid can be nearer, and no distance is computed.
+ * <p>
+ * A bound only ever leads to skipping an instance whose assigned centroid is strictly nearer than all others, with a
+ * margin far above the rounding error of the bounds, so the assignments are exactly those of comparing every instance
+ * with every centroid, including the lowest index winning ties. The bounds hold for the Euclidean distance only.
+ * <p>
+ * The bounds of different instances are independent, so disjoint blocks of instances may be assigned in parallel.
+ */
+final class CentroidBounds {
+
+    /* the relative slack by which a bound must be beaten before an instance is skipped */
+    private static final double MARGIN = 1e-9;
+
+    private final double[] upper; // per instance: at least the distance to its assigned centroid
+    private final double[] lower; // per instance: at most the distance to any other centroid
+    private boolean        fresh = true; // no assignment has been made yet, so there are no bounds
+
+    /* per centroid, set by moveCentroids(): how far it moved, and half the distance to its nearest other centroid */
+    private double[]       drifts;
+    private double[]       halfSeparations;
+    private double[]       previousXs;
+    private double[]       previousYs;
+    private int            farthestMoved; // the centroid that moved the most
+    private double         maxDrift;      // how far it moved
+    private double         secondDrift;   // how far the centroid that moved second most moved
+
+    CentroidBounds(int numberOfInstances) {
+        upper = new double[numberOfInstances];
+        lower = new double[numberOfInstances];
+    }
+
+    /**
+     * Takes note of the centroids the next assignment is made against, and how far each moved since the previous one.
+     * Must be called before each assignment.
+     */
+    void moveCentroids(double[] centroidXs, double[] centroidYs) {
+        int k = centroidXs.length;
+        if (previousXs == null || previousXs.length != k) {
+            previousXs = centroidXs.clone();
+            previousYs = centroidYs.clone();
+            drifts = new double[k];
+            halfSeparations = new double[k];
+            fresh = true;
+        }
+        farthestMoved = -1;
+        maxDrift = secondDrift = 0;
+        for (int c = 0; c < k; c++) {
+            drifts[c] = distance(previousXs[c], previousYs[c], centroidXs[c], centroidYs[c]);
+            if (drifts[c] > maxDrift) {
+                secondDrift = maxDrift;
+                maxDrift = drifts[c];
+                farthestMoved = c;
+            } else if (drifts[c] > secondDrift) {
+                secondDrift = drifts[c];
+            }
+        }
+        System.arraycopy(centroidXs, 0, previousXs, 0, k);
+        System.arraycopy(centroidYs, 0, previousYs, 0, k);
+
+        for (int c = 0; c < k; c++) {
+            double nearest = Double.POSITIVE_INFINITY;
+            for (int other = 0; other < k; other++)
+                if (other != c)
+                    nearest = Math.min(nearest, distance(centroidXs[c], centroidYs[c], centroidXs[other], centroidYs[other]));
+            halfSeparations[c] = nearest / 2;
+        }
+    }
+
+    /** Assigns the instances in <code>[from, to)</code>, computing distances only where the bounds do not suffice. */
+    void assignBlock(double[] xs, double[] ys, double[] centroidXs, double[] centroidYs, int[] assignments,
+                     int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!fresh) {
+                int assigned = assignments[i];
+                upper[i] += drifts[assigned];
+                lower[i] -= assigned == farthestMoved ? secondDrift : maxDrift;
+                double bound = Math.max(halfSeparations[assigned], lower[i]);
+                if (isBelow(upper[i], bound))
+                    continue;
+                upper[i] = distance(xs[i], ys[i], centroidXs[assigned], centroidYs[assigned]);
+                if (isBelow(upper[i], bound))
+                    continue;
+            }
+            assignToNearest(i, xs[i], ys[i], centroidXs, centroidYs, assignments);
+        }
+    }
+
+    /** Marks the bounds as computed, once every block has been assigned. */
+    void assigned() { fresh = false; }
+
+    /* compares the instance with every centroid, in the same order and with the same squared distances as the kernel */
+    private void assignToNearest(int i, double x, double y, double[] centroidXs, double[] centroidYs, int[] assignments) {
+        double dx0      = x - centroidXs[0];
+        double dy0      = y - centroidYs[0];
+        double nearest  = dx0 * dx0 + dy0 * dy0; // the first centroid is taken even if its distance is infinite or NaN
+        double second   = Double.MAX_VALUE;
+        int    assigned = 0;
+        for (int c = 1; c < centroidXs.length; c++) {
+            double dx       = x - centroidXs[c];
+            double dy       = y - centroidYs[c];
+            double distance = dx * dx + dy * dy;
+            if (distance < nearest) {
+                second = nearest;
+                nearest = distance;
+                assigned = c;
+            } else if (distance < second) {
+                second = distance;
+            }
+        }
+        assignments[i] = assigned;
+        upper[i] = Math.sqrt(nearest);
+        lower[i] = Math.sqrt(second);
+    }
+
+    private static boolean isBelow(double upper, double bound) { return upper * (1 + MARGIN) < bound * (1 - MARGIN); }
+
+    private static double distance(double x1, double y1, double x2, double y2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
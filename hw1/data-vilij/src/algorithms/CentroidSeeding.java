@@ -0,0 +1,323 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * The ways k-means can choose its initial centroids among the instances. Good seeds spread out over the data, so the
+ * run starts closer to a good clustering and needs fewer iterations to converge.
+ * <p>
+ * All passes over the instances are split into fixed blocks that run in parallel on the common pool once there are
+ * enough instances, and the random choices within a pass depend only on the seed and the instance, so the centroids
+ * chosen for a given seed do not depend on the number of cores.
+ */
+public enum CentroidSeeding {
+
+    /** Distinct instances chosen uniformly at random. */
+    RANDOM {
+        @Override
+        public void seed(double[] xs, double[] ys, int n, long seed, double[] centroidXs, double[] centroidYs) {
+            Random       random = new Random(seed);
+            int          k      = centroidXs.length;
+            Set<Integer> chosen = new HashSet<>();
+            for (int j = Math.max(n - k, 0); j < n; j++) { // Floyd's sampling of min(k, n) distinct instances
+                int i = random.nextInt(j + 1);
+                chosen.add(chosen.contains(i) ? j : i);
+            }
+            int c = 0;
+            for (int i : chosen) {
+                centroidXs[c] = xs[i];
+                centroidYs[c] = ys[i];
+                c++;
+            }
+            for (; c < k; c++) { // fewer instances than centroids
+                centroidXs[c] = centroidXs[0];
+                centroidYs[c] = centroidYs[0];
+            }
+        }
+    },
+
+    /**
+     * K-means++: the first centroid is an instance chosen uniformly at random, and each further centroid is an instance
+     * chosen with a probability proportional to its squared distance from the nearest centroid chosen so far. This
+     * takes one pass over the instances per centroid.
+     */
+    K_MEANS_PLUS_PLUS {
+        @Override
+        public void seed(double[] xs, double[] ys, int n, long seed, double[] centroidXs, double[] centroidYs) {
+            plusPlus(xs, ys, null, n, new Random(seed), centroidXs, centroidYs);
+        }
+    },
+
+    /**
+     * K-means||, the scalable variant of k-means++: starting from one random instance, every one of a few rounds
+     * samples each instance independently, with a probability proportional to its squared distance from the nearest
+     * instance sampled so far, about {@value #OVERSAMPLING} times k instances per round. The sampled instances are then
+     * weighted by the number of instances nearest to them, and k-means++ picks the centroids among those few weighted
+     * instances. This takes a handful of parallel passes over the instances however large k is, but more distance
+     * computations than k-means++, so it pays off for large k, when k passes over the instances cost more than a few.
+     */
+    K_MEANS_PARALLEL {
+        @Override
+        public void seed(double[] xs, double[] ys, int n, long seed, double[] centroidXs, double[] centroidYs) {
+            int k = centroidXs.length;
+            if (n <= OVERSAMPLING * k * ROUNDS) { // sampling would keep about as many instances as there are
+                K_MEANS_PLUS_PLUS.seed(xs, ys, n, seed, centroidXs, centroidYs);
+                return;
+            }
+            Random   random         = new Random(seed);
+            double[] distances      = new double[n];
+            int[]    owners         = new int[n]; // the nearest candidate of each instance
+            int[]    candidates     = new int[k * OVERSAMPLING * ROUNDS + 1];
+            int      candidateCount = 0;
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+
+            candidates[candidateCount++] = random.nextInt(n);
+            double[] blockCosts = updateDistances(xs, ys, n, distances, owners, candidates, 0, candidateCount);
+            for (int round = 0; round < ROUNDS; round++) {
+                double cost = sum(blockCosts);
+                if (cost == 0) // every instance is a candidate already
+                    break;
+                int[][] sampled = sample(distances, n, OVERSAMPLING * k / cost, random.nextLong());
+                int     from    = candidateCount;
+                for (int[] block : sampled) {
+                    if (candidateCount + block.length > candidates.length)
+                        candidates = Arrays.copyOf(candidates, Math.max(candidates.length * 2,
+                                                                        candidateCount + block.length));
+                    System.arraycopy(block, 0, candidates, candidateCount, block.length);
+                    candidateCount += block.length;
+                }
+                blockCosts = updateDistances(xs, ys, n, distances, owners, candidates, from, candidateCount);
+            }
+
+            double[] candidateXs = new double[candidateCount];
+            double[] candidateYs = new double[candidateCount];
+            for (int c = 0; c < candidateCount; c++) {
+                candidateXs[c] = xs[candidates[c]];
+                candidateYs[c] = ys[candidates[c]];
+            }
+            double[] weights = countOwners(owners, n, candidateCount);
+            plusPlus(candidateXs, candidateYs, weights, candidateCount, random, centroidXs, centroidYs);
+        }
+    };
+
+    /** K-means|| samples about this many times k instances per round. */
+    static final int OVERSAMPLING = 2;
+    /** The number of sampling rounds of k-means||; two are about as good as the five the original paper used. */
+    static final int ROUNDS       = 2;
+
+    private static final int BLOCK_SIZE = 1 << 12;
+
+    /**
+     * Chooses the initial centroids among the first <code>n</code> instances, one per entry of
+     * <code>centroidXs</code>. If there are fewer distinct instances than centroids, some centroids are the same.
+     *
+     * @param seed the seed of the random choices; the same seed always leads to the same centroids
+     */
+    public abstract void seed(double[] xs, double[] ys, int n, long seed, double[] centroidXs, double[] centroidYs);
+
+    /* k-means++ over the instances, each counting as many times as its weight, or once if there are no weights */
+    private static void plusPlus(double[] xs, double[] ys, double[] weights, int n, Random random,
+                                 double[] centroidXs, double[] centroidYs) {
+        int      k         = centroidXs.length;
+        double[] distances = new double[n];
+        int[]    chosen    = new int[1];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        chosen[0] = pick(weights, n, sum(weights, n) * random.nextDouble());
+        for (int c = 0; c < k; c++) {
+            centroidXs[c] = xs[chosen[0]];
+            centroidYs[c] = ys[chosen[0]];
+            if (c == k - 1)
+                break;
+            double[] blockCosts = updateDistances(xs, ys, n, distances, null, chosen, 0, 1);
+            if (weights != null)
+                blockCosts = weightedBlockCosts(distances, weights, n);
+            double cost = sum(blockCosts);
+            chosen[0] = cost > 0 ? pick(distances, weights, blockCosts, n, cost * random.nextDouble())
+                                 : pick(weights, n, sum(weights, n) * random.nextDouble()); // all covered
+        }
+    }
+
+    /* the instance at which the running sum of the weights (all 1 if there are none) first exceeds the target */
+    private static int pick(double[] weights, int n, double target) {
+        if (weights == null)
+            return Math.min((int) target, n - 1);
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += weights[i];
+            if (sum > target)
+                return i;
+        }
+        return n - 1;
+    }
+
+    /* the instance at which the running sum of the (weighted) distances first exceeds the target, block by block */
+    private static int pick(double[] distances, double[] weights, double[] blockCosts, int n, double target) {
+        int    block = -1;
+        double sum   = 0;
+        for (int b = 0; b < blockCosts.length; b++) {
+            if (blockCosts[b] == 0)
+                continue;
+            block = b;
+            if (sum + blockCosts[b] > target)
+                break;
+            sum += blockCosts[b];
+        }
+        int last = -1;
+        for (int i = block * BLOCK_SIZE; i < Math.min((block + 1) * BLOCK_SIZE, n); i++) {
+            double cost = weights == null ? distances[i] : distances[i] * weights[i];
+            if (cost > 0) {
+                last = i;
+                sum += cost;
+                if (sum > target)
+                    return i;
+            }
+        }
+        return last; // rounding left the target just past the last instance with a distance
+    }
+
+    /*
+     * Lowers each instance's squared distance to that of the nearest of the given candidates, if nearer, and records
+     * that candidate as the instance's owner, if there are owners.
+     *
+     * @return the sums of the distances per block
+     */
+    private static double[] updateDistances(double[] xs, double[] ys, int n, double[] distances, int[] owners,
+                                            int[] candidates, int from, int to) {
+        double[] blockCosts   = new double[blocks(n)];
+        double[] candidateXs  = new double[to - from];
+        double[] candidateYs  = new double[to - from];
+        for (int c = from; c < to; c++) {
+            candidateXs[c - from] = xs[candidates[c]];
+            candidateYs[c - from] = ys[candidates[c]];
+        }
+        forEachBlock(n, block -> {
+            int    end  = Math.min((block + 1) * BLOCK_SIZE, n);
+            double cost = 0;
+            for (int i = block * BLOCK_SIZE; i < end; i++) {
+                double x       = xs[i];
+                double y       = ys[i];
+                double nearest = distances[i];
+                int    owner   = -1;
+                for (int c = 0; c < candidateXs.length; c++) {
+                    double distance = DistanceKernel.SQUARED_EUCLIDEAN.distance(x, y, candidateXs[c], candidateYs[c]);
+                    if (distance < nearest) {
+                        nearest = distance;
+                        owner = from + c;
+                    }
+                }
+                if (owner >= 0) {
+                    distances[i] = nearest;
+                    if (owners != null)
+                        owners[i] = owner;
+                }
+                cost += nearest;
+            }
+            blockCosts[block] = cost;
+        });
+        return blockCosts;
+    }
+
+    /* the number of instances each candidate owns */
+    private static double[] countOwners(int[] owners, int n, int numberOfCandidates) {
+        int[][] blockCounts = new int[blocks(n)][numberOfCandidates];
+        forEachBlock(n, block -> {
+            for (int i = block * BLOCK_SIZE; i < Math.min((block + 1) * BLOCK_SIZE, n); i++)
+                blockCounts[block][owners[i]]++;
+        });
+        double[] counts = new double[numberOfCandidates];
+        for (int[] block : blockCounts)
+            for (int c = 0; c < numberOfCandidates; c++)
+                counts[c] += block[c];
+        return counts;
+    }
+
+    private static double[] weightedBlockCosts(double[] distances, double[] weights, int n) {
+        double[] blockCosts = new double[blocks(n)];
+        for (int i = 0; i < n; i++)
+            blockCosts[i / BLOCK_SIZE] += distances[i] * weights[i];
+        return blockCosts;
+    }
+
+    /* the instances sampled independently with probability min(1, scale * distance), per block and in order */
+    private static int[][] sample(double[] distances, int n, double scale, long seed) {
+        int[][] sampled = new int[blocks(n)][];
+        forEachBlock(n, block -> {
+            int   end   = Math.min((block + 1) * BLOCK_SIZE, n);
+            int[] found = new int[0];
+            int   count = 0;
+            for (int i = block * BLOCK_SIZE; i < end; i++) {
+                if (uniform(seed, i) < scale * distances[i]) {
+                    if (count == found.length)
+                        found = Arrays.copyOf(found, Math.max(2 * count, 4));
+                    found[count++] = i;
+                }
+            }
+            sampled[block] = Arrays.copyOf(found, count);
+        });
+        return sampled;
+    }
+
+    /* a uniform number in [0, 1) that depends only on the seed and the index (SplitMix64) */
+    private static double uniform(long seed, int index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    private static double sum(double[] values) { return sum(values, values.length); }
+
+    /* the sum of the first n values, or n if there are no values */
+    private static double sum(double[] values, int n) {
+        if (values == null)
+            return n;
+        double sum = 0;
+        for (int i = 0; i < n; i++)
+            sum += values[i];
+        return sum;
+    }
+
+    private static int blocks(int n) { return (n + BLOCK_SIZE - 1) / BLOCK_SIZE; }
+
+    /* runs the action for every block of instances, in parallel if there are enough instances */
+    private static void forEachBlock(int n, IntConsumer action) {
+        BlockAction task = new BlockAction(action, 0, blocks(n));
+        if (n < NearestCentroidTask.PARALLEL_THRESHOLD)
+            task.compute();
+        else
+            ForkJoinPool.commonPool().invoke(task);
+    }
+
+    private static final class BlockAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer action;
+        private final int         from;
+        private final int         to;
+
+        BlockAction(IntConsumer action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from)
+                    action.accept(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BlockAction(action, from, middle), new BlockAction(action, middle, to));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package algorithms;
+
+import javafx.scene.chart.XYChart;
+import ui.CanvasScatterChart;
+import ui.PointDownsampler;
+
+import java.util.*;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Keeps a chart in sync with the labels of a {@link DataSet} while a clustering algorithm runs. The chart holds one
+ * series per label, created the first time the label is seen, or taken over from what the chart showed before if it
+ * already had a series of that name, and every instance is a single chart point. Given a new
+ * {@link DataSet#snapshotLabelIds() snapshot} of the labels, only the points whose label changed since the previous
+ * snapshot are moved to another series; all other points, and their nodes, are left alone. A
+ * {@link CanvasScatterChart} has no node per point, so it is simply handed the whole snapshot.
+ * <p>
+ * When there are more instances than the chart can show apart, only the points a {@link PointDownsampler} picks from
+ * each snapshot are shown; a point that is no longer picked is removed from the chart as if it had lost its label.
+ * <p>
+ * Must only be used on the JavaFX application thread. The binder only needs the chart for its list of series and the
+ * size of its plot area, so it can also keep a bare list of series in sync, without a display.
+ */
+final class ChartBinder {
+
+    private final List<XYChart.Series<Number, Number>> chartData;   // the series the chart shows
+    private final CanvasScatterChart                   canvasChart; // the chart, if it plots on a canvas
+    private final DoubleSupplier                       plotWidth;
+    private final DoubleSupplier                       plotHeight;
+    private final DataSet                              dataSet;
+    private final List<XYChart.Series<Number, Number>> seriesByLabelId;
+    private final List<XYChart.Data<Number, Number>>   points;   // the chart point of each instance, if shown
+    private int[]                                      shownIds; // the label id each instance is shown under
+    private final PointDownsampler                     downsampler;
+    private double                                     minX, maxX, minY, maxY;
+
+    ChartBinder(XYChart<Number, Number> chart, DataSet dataSet) {
+        this(chart.getData(), chart instanceof CanvasScatterChart ? (CanvasScatterChart) chart : null,
+             () -> PointDownsampler.plotWidth(chart), () -> PointDownsampler.plotHeight(chart), dataSet);
+    }
+
+    /* keeps the given series in sync as if they were shown in a plot area of the given size, e.g., in a test */
+    ChartBinder(List<XYChart.Series<Number, Number>> chartData, double plotWidth, double plotHeight, DataSet dataSet) {
+        this(chartData, null, () -> plotWidth, () -> plotHeight, dataSet);
+    }
+
+    private ChartBinder(List<XYChart.Series<Number, Number>> chartData, CanvasScatterChart canvasChart,
+                        DoubleSupplier plotWidth, DoubleSupplier plotHeight, DataSet dataSet) {
+        this.chartData = chartData;
+        this.canvasChart = canvasChart;
+        this.plotWidth = plotWidth;
+        this.plotHeight = plotHeight;
+        this.dataSet = dataSet;
+        this.seriesByLabelId = new ArrayList<>();
+        this.points = new ArrayList<>();
+        this.downsampler = new PointDownsampler(PointDownsampler.NODE_CELL_SIZE);
+    }
+
+    /**
+     * Updates the chart to show the instances as labelled in the given snapshot. The first call replaces whatever the
+     * chart showed before. The changes are grouped by series in a single pass over the instances, so each series is
+     * updated at most twice: once to remove points and once to add points.
+     */
+    void bind(int[] labelIdSnapshot) {
+        if (canvasChart != null) {
+            canvasChart.plot(dataSet.getLabelTable(), dataSet.getXs(), dataSet.getYs(), labelIdSnapshot,
+                             labelIdSnapshot.length);
+            return;
+        }
+        double[] xs = dataSet.getXs();
+        double[] ys = dataSet.getYs();
+        int      n  = labelIdSnapshot.length;
+        boolean  first = shownIds == null;
+        if (first) {
+            shownIds = new int[n];
+            Arrays.fill(shownIds, DataSet.NO_LABEL);
+            points.addAll(Collections.nCopies(n, null));
+            minX = minY = Double.POSITIVE_INFINITY;
+            maxX = maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                minX = Math.min(minX, xs[i]);
+                maxX = Math.max(maxX, xs[i]);
+                minY = Math.min(minY, ys[i]);
+                maxY = Math.max(maxY, ys[i]);
+            }
+        }
+        int                                       numberOfLabels = dataSet.getNumberOfLabels();
+        int[]                                     pickedIds      = downsampler.downsample(
+                xs, ys, labelIdSnapshot, n, numberOfLabels, minX, maxX, minY, maxY,
+                plotWidth.getAsDouble(), plotHeight.getAsDouble());
+        List<Set<XYChart.Data<Number, Number>>>   removed        = new ArrayList<>(Collections.nCopies(numberOfLabels, null));
+        List<List<XYChart.Data<Number, Number>>>  added          = new ArrayList<>(Collections.nCopies(numberOfLabels, null));
+        for (int i = 0; i < n; i++) {
+            int from = shownIds[i];
+            int to   = pickedIds[i];
+            if (from == to)
+                continue;
+            if (from != DataSet.NO_LABEL) {
+                if (removed.get(from) == null)
+                    removed.set(from, new HashSet<>());
+                removed.get(from).add(points.get(i));
+            }
+            XYChart.Data<Number, Number> point = null;
+            if (to != DataSet.NO_LABEL) {
+                // a fresh point, since a point's node keeps the style of the series it was first shown in
+                point = new XYChart.Data<>(xs[i], ys[i]);
+                if (added.get(to) == null)
+                    added.set(to, new ArrayList<>());
+                added.get(to).add(point);
+            }
+            points.set(i, point);
+            shownIds[i] = to;
+        }
+        if (first)
+            reuseSeries(added);
+        addSeries(added);
+        for (int id = 0; id < numberOfLabels; id++) {
+            if (removed.get(id) != null)
+                seriesByLabelId.get(id).getData().removeAll(removed.get(id));
+            if (added.get(id) != null)
+                seriesByLabelId.get(id).getData().addAll(added.get(id));
+        }
+    }
+
+    /*
+     * Takes over the series the chart already shows under the names of the labels about to be shown, emptied, and
+     * removes all other series. Keeping a series spares the chart rebuilding its legend entry, which adds up with many
+     * clusters, and since series are only ever removed here, every series keeps its position, and so its color.
+     */
+    private void reuseSeries(List<List<XYChart.Data<Number, Number>>> added) {
+        Map<String, XYChart.Series<Number, Number>> shownByName = new HashMap<>();
+        for (XYChart.Series<Number, Number> series : chartData)
+            shownByName.putIfAbsent(series.getName(), series);
+        List<XYChart.Series<Number, Number>> kept = new ArrayList<>();
+        for (int id = 0; id < added.size(); id++) {
+            XYChart.Series<Number, Number> series = added.get(id) == null ? null
+                                                                         : shownByName.remove(dataSet.getLabel(id));
+            if (series != null) {
+                series.getData().clear();
+                setSeries(id, series);
+                kept.add(series);
+            }
+        }
+        chartData.retainAll(kept);
+    }
+
+    /* adds a series for every label that gets points but has none yet, all at once */
+    private void addSeries(List<List<XYChart.Data<Number, Number>>> added) {
+        List<XYChart.Series<Number, Number>> newSeries = new ArrayList<>();
+        for (int id = 0; id < added.size(); id++) {
+            if (added.get(id) != null && (id >= seriesByLabelId.size() || seriesByLabelId.get(id) == null)) {
+                XYChart.Series<Number, Number> series = new XYChart.Series<>();
+                series.setName(dataSet.getLabel(id));
+                setSeries(id, series);
+                newSeries.add(series);
+            }
+        }
+        if (!newSeries.isEmpty())
+            chartData.addAll(newSeries);
+    }
+
+    private void setSeries(int labelId, XYChart.Series<Number, Number> series) {
+        while (seriesByLabelId.size() <= labelId)
+            seriesByLabelId.add(null);
+        seriesByLabelId.set(labelId, series);
+    }
+}
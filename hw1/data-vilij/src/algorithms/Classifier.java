@@ -1,7 +1,5 @@
 package algorithms;
 
-import java.util.List;
-
 /**
  * An abstract class for classification algorithms. The output
  * for these algorithms is a straight line, as described in
@@ -14,13 +12,13 @@ import java.util.List;
 public abstract class Classifier implements Algorithm {
 
     /**
-     * See Appendix C of the SRS. Defining the output as a
-     * list instead of a triple allows for future extension
-     * into polynomial curves instead of just straight lines.
-     * See 3.4.4 of the SRS.
+     * See Appendix C of the SRS. Defining the output as an
+     * array of coefficients instead of a triple allows for future
+     * extension into polynomial curves instead of just straight
+     * lines. See 3.4.4 of the SRS.
      */
-    protected List<Integer> output;
+    protected ClassifierModel output;
 
-    public List<Integer> getOutput() { return output; }
+    public ClassifierModel getOutput() { return output; }
 
 }
\ No newline at end of file
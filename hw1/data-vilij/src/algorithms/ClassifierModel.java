@@ -0,0 +1,36 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * The output of a {@link Classifier} after an iteration: the coefficients of its decision boundary, in double precision,
+ * and the iteration they were reached in. For a straight line, the coefficients <code>[a, b, c]</code> stand for
+ * <code>a x + b y = c</code>; more coefficients leave room for polynomial curves, as the SRS foresees.
+ * <p>
+ * A model is immutable, so the algorithm can hand it over to the UI as it is, and it holds the coefficients in a
+ * primitive array, so publishing one after every iteration boxes nothing.
+ */
+public final class ClassifierModel {
+
+    private final double[] coefficients;
+    private final int      iteration;
+
+    /** @param coefficients the coefficients, which are copied */
+    public ClassifierModel(int iteration, double... coefficients) {
+        this.iteration = iteration;
+        this.coefficients = coefficients.clone();
+    }
+
+    /** @return the iteration of the algorithm the model was reached in */
+    public int getIteration() { return iteration; }
+
+    public int getNumberOfCoefficients() { return coefficients.length; }
+
+    public double getCoefficient(int i) { return coefficients[i]; }
+
+    /** @return a copy of the coefficients */
+    public double[] getCoefficients() { return coefficients.clone(); }
+
+    @Override
+    public String toString() { return "iteration " + iteration + ": " + Arrays.toString(coefficients); }
+}
@@ -1,32 +1,43 @@
 package algorithms;
 
+import java.util.Random;
+
 /**
  * @author Ritwik Banerjee
  */
 public abstract class Clusterer implements Algorithm {
 
-    protected final int numberOfClusters;
+    /** The largest number of clusters a clusterer accepts unless it sets its own bound. */
+    public static final int DEFAULT_MAX_CLUSTERS = 1 << 16;
+
+    protected final int    numberOfClusters;
+    protected final Random random = new Random(); // the source of every random choice of the clusterer
 
     public int getNumberOfClusters() { return numberOfClusters; }
 
-    public Clusterer(int k, int j) {
-        if (k < 2 || j <= 2)
-            k = 2;
-        if ( k == 4 && j == 3)
-            k = 3;
-        else if (k > 4)
-            k = 4;
-        numberOfClusters = k;
-    }
+    /** Makes the random choices of the clusterer repeatable, e.g., to compare runs that differ in other settings. */
+    public void setRandomSeed(long seed) { random.setSeed(seed); }
+
+    /**
+     * @param k the number of clusters, from 1 to the number of instances and at most {@link #DEFAULT_MAX_CLUSTERS}
+     * @param j the number of instances, or {@link Integer#MAX_VALUE} if it is not known up front
+     * @throws IllegalArgumentException if there cannot be <code>k</code> clusters
+     */
+    public Clusterer(int k, int j) { this(k, j, DEFAULT_MAX_CLUSTERS); }
 
-    /*
-    public Clusterer(int k, int j) {
-        if (k < 2)
-            k = 2;
-        else if (k > 4)
-            k = 4;
+    /**
+     * @param k           the number of clusters, from 1 to the number of instances and at most <code>maxClusters</code>
+     * @param j           the number of instances, or {@link Integer#MAX_VALUE} if it is not known up front
+     * @param maxClusters the largest number of clusters this clusterer can handle
+     * @throws IllegalArgumentException if there cannot be <code>k</code> clusters
+     */
+    protected Clusterer(int k, int j, int maxClusters) {
+        if (k < 1 || k > maxClusters)
+            throw new IllegalArgumentException(String.format("The number of clusters must be from 1 to %d, not %d.",
+                                                             maxClusters, k));
+        if (k > j)
+            throw new IllegalArgumentException(String.format("There cannot be %d clusters of %d instances.", k, j));
         numberOfClusters = k;
     }
-    */
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,261 @@
+package algorithms;
+
+import javafx.scene.chart.XYChart;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs a grid of clustering configurations over the same instances at the same time, and scores each result, to
+ * compare numbers of clusters, algorithms and seeds. The sweep takes a {@link DataSet#snapshotInstances() read-only
+ * snapshot} of the instances once, when it is created. Every configuration runs to completion without the UI, on a
+ * worker pool of its own, and labels a {@link DataSet#withSharedInstances() dataset of its own} that shares the
+ * snapshot with all others, so the instances are held only twice however large the grid, and no run sees them change.
+ * <p>
+ * A result is scored by its inertia, i.e., the sum of the squared distances of the instances to the mean of their
+ * cluster, and by its simplified silhouette: for each instance, the distance <i>a</i> to the mean of its own cluster
+ * and the distance <i>b</i> to the nearest mean of another cluster give <i>(b - a) / max(a, b)</i>, averaged over the
+ * instances. Inertia always drops with more clusters, so only the silhouette, from -1 to 1 and higher for compact,
+ * well separated clusters, compares results with different numbers of clusters; the {@link #best best} result is the
+ * one with the highest silhouette.
+ */
+public final class ClusteringSweep {
+
+    /** A clustering algorithm, by class name, with a number of clusters and a random seed. */
+    public static final class Configuration {
+
+        private final String algorithmClassName;
+        private final int    numberOfClusters;
+        private final long   seed;
+
+        public Configuration(String algorithmClassName, int numberOfClusters, long seed) {
+            this.algorithmClassName = algorithmClassName;
+            this.numberOfClusters = numberOfClusters;
+            this.seed = seed;
+        }
+
+        public String getAlgorithmClassName() { return algorithmClassName; }
+
+        public int getNumberOfClusters() { return numberOfClusters; }
+
+        public long getSeed() { return seed; }
+
+        @Override
+        public String toString() {
+            return String.format("%s k=%d seed=%d", algorithmClassName.substring(algorithmClassName.lastIndexOf('.') + 1),
+                                 numberOfClusters, seed);
+        }
+    }
+
+    /** The labels a configuration ended up with, and their scores. */
+    public static final class Result {
+
+        private final Configuration configuration;
+        private final DataSet       dataSet;
+        private final int           iterations;
+        private final double        inertia;
+        private final double        silhouette;
+
+        private Result(Configuration configuration, DataSet dataSet, int iterations) {
+            this.configuration = configuration;
+            this.dataSet = dataSet;
+            this.iterations = iterations;
+            double[] scores = score(dataSet);
+            this.inertia = scores[0];
+            this.silhouette = scores[1];
+        }
+
+        public Configuration getConfiguration() { return configuration; }
+
+        /** @return the instances as labelled by the configuration */
+        public DataSet getDataSet() { return dataSet; }
+
+        public int getIterations() { return iterations; }
+
+        public double getInertia() { return inertia; }
+
+        public double getSilhouette() { return silhouette; }
+
+        /** Shows the labelled instances in the chart, in place of what it showed. Must be called on the JavaFX thread. */
+        public void showIn(XYChart<Number, Number> chart) {
+            new ChartBinder(chart, dataSet).bind(dataSet.snapshotLabelIds());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d iterations, inertia %.6g, silhouette %.4f", configuration, iterations, inertia,
+                                 silhouette);
+        }
+    }
+
+    private final DataSet instances;
+    private final int     maxIterations;
+
+    /**
+     * @param dataSet       the instances to cluster, of which a snapshot is taken; later changes do not affect the sweep
+     * @param maxIterations the maximum number of iterations of every configuration
+     */
+    public ClusteringSweep(DataSet dataSet, int maxIterations) {
+        this.instances = dataSet.snapshotInstances();
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @return one configuration per algorithm, number of clusters and seed, i.e., the whole grid
+     */
+    public static List<Configuration> grid(List<String> algorithmClassNames, int minClusters, int maxClusters,
+                                           List<Long> seeds) {
+        List<Configuration> grid = new ArrayList<>();
+        for (String algorithmClassName : algorithmClassNames)
+            for (int k = minClusters; k <= maxClusters; k++)
+                for (long seed : seeds)
+                    grid.add(new Configuration(algorithmClassName, k, seed));
+        return grid;
+    }
+
+    /**
+     * Runs every configuration to completion, at most <code>parallelism</code> of them at the same time, and waits for
+     * them all.
+     *
+     * @return the results, in the order of the configurations
+     * @throws ExecutionException if a configuration cannot be run, e.g., it has more clusters than instances
+     */
+    public List<Result> run(List<Configuration> configurations, int parallelism)
+            throws ExecutionException, InterruptedException {
+        AtomicInteger   workers = new AtomicInteger();
+        ExecutorService pool    = Executors.newFixedThreadPool(Math.max(parallelism, 1), runnable -> {
+            Thread worker = new Thread(runnable, "sweep-" + workers.incrementAndGet());
+            worker.setDaemon(true);
+            return worker;
+        });
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (Configuration configuration : configurations)
+                futures.add(pool.submit(() -> run(configuration)));
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> future : futures)
+                results.add(future.get());
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the sweep of the given configurations as an algorithm, to be submitted to an {@link AlgorithmExecutor} like
+     * any other run: running it {@link #run(List, int) runs} the configurations and hands their results to the given
+     * consumer, on the thread that ran it, unless the run was cancelled in the meantime
+     */
+    public Algorithm asAlgorithm(List<Configuration> configurations, int parallelism, Consumer<List<Result>> whenDone) {
+        return new Algorithm() {
+
+            private final StepGate gate = new StepGate();
+
+            @Override
+            public int getMaxIterations() { return maxIterations; }
+
+            @Override
+            public int getUpdateInterval() { return maxIterations; }
+
+            @Override
+            public boolean tocontinue() { return false; }
+
+            @Override
+            public StepGate getStepGate() { return gate; }
+
+            @Override
+            public void run() { run(AlgorithmListener.NONE); }
+
+            /* counts one iteration per configuration */
+            @Override
+            public int run(AlgorithmListener listener) {
+                List<Result> results;
+                try {
+                    results = ClusteringSweep.this.run(configurations, parallelism);
+                } catch (InterruptedException e) {
+                    throw new CancellationException(); // the run was cancelled while waiting for the configurations
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+                AlgorithmExecutor.checkpoint();
+                whenDone.accept(results);
+                listener.finished(this, results.size());
+                return results.size();
+            }
+        };
+    }
+
+    /** @return the result with the highest silhouette, or <code>null</code> if there are no results */
+    public static Result best(List<Result> results) {
+        return results.isEmpty() ? null : Collections.max(results, Comparator.comparingDouble(Result::getSilhouette));
+    }
+
+    private Result run(Configuration configuration) throws ReflectiveOperationException {
+        DataSet   dataSet   = instances.withSharedInstances();
+        Algorithm algorithm = BatchRunner.newAlgorithm(configuration.getAlgorithmClassName(), dataSet, maxIterations,
+                                                       configuration.getNumberOfClusters());
+        if (!(algorithm instanceof Clusterer))
+            throw new ClassNotFoundException(configuration.getAlgorithmClassName() + " is not a clusterer");
+        ((Clusterer) algorithm).setRandomSeed(configuration.getSeed());
+        return new Result(configuration, dataSet, algorithm.run(AlgorithmListener.NONE));
+    }
+
+    /* the inertia and the simplified silhouette of the labels, in one pass to find the means and one to score */
+    private static double[] score(DataSet dataSet) {
+        int      n      = dataSet.size();
+        int      k      = dataSet.getNumberOfLabels();
+        double[] xs     = dataSet.getXs();
+        double[] ys     = dataSet.getYs();
+        int[]    ids    = dataSet.getLabelIds();
+        double[] meanXs = new double[k];
+        double[] meanYs = new double[k];
+        long[]   counts = new long[k];
+        for (int i = 0; i < n; i++) {
+            if (ids[i] == DataSet.NO_LABEL)
+                continue;
+            meanXs[ids[i]] += xs[i];
+            meanYs[ids[i]] += ys[i];
+            counts[ids[i]]++;
+        }
+        int used = 0;
+        for (int c = 0; c < k; c++) {
+            if (counts[c] == 0)
+                continue;
+            meanXs[c] /= counts[c];
+            meanYs[c] /= counts[c];
+            used++;
+        }
+
+        double inertia    = 0;
+        double silhouette = 0;
+        long   scored     = 0;
+        for (int i = 0; i < n; i++) {
+            int own = ids[i];
+            if (own == DataSet.NO_LABEL)
+                continue;
+            double a = DistanceKernel.SQUARED_EUCLIDEAN.distance(xs[i], ys[i], meanXs[own], meanYs[own]);
+            inertia += a;
+            scored++;
+            if (used < 2)
+                continue; // with a single cluster, every silhouette is 0
+            double b = Double.POSITIVE_INFINITY;
+            for (int c = 0; c < k; c++)
+                if (c != own && counts[c] > 0)
+                    b = Math.min(b, DistanceKernel.SQUARED_EUCLIDEAN.distance(xs[i], ys[i], meanXs[c], meanYs[c]));
+            a = Math.sqrt(a);
+            b = Math.sqrt(b);
+            if (Math.max(a, b) > 0)
+                silhouette += (b - a) / Math.max(a, b);
+        }
+        return new double[]{ inertia, scored == 0 ? 0 : silhouette / scored };
+    }
+}
@@ -1,12 +1,10 @@
 package algorithms;
 
-import javafx.application.Platform;
 import javafx.geometry.Point2D;
-import javafx.scene.chart.XYChart;
-import ui.AppUI;
-import vilij.templates.ApplicationTemplate;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
@@ -20,6 +18,13 @@ import java.util.*;
  * objects representing the name-to-label map and the name-to-location (i.e.,
  * the x,y values) map. These two are the {@link DataSet#dataLabels} and
  * {@link DataSet#locations} maps in this class.
+ * <p>
+ * The instances are stored by column: a {@link NameIndex} from names to
+ * positions, the coordinates in two <code>double</code> arrays and the labels
+ * as ids into a table of distinct labels. The two maps are views over these
+ * columns, kept for compatibility; algorithms should iterate the arrays
+ * directly (see {@link #size()}, {@link #getXs()}, {@link #getYs()} and
+ * {@link #getLabelIds()}).
  *
  * @author Ritwik Banerjee
  */
@@ -40,34 +45,208 @@ public class DataSet {
         return name;
     }
 
-    private static Point2D locationOf(String locationString) {
-        String[] coordinateStrings = locationString.trim().split(",");
-        return new Point2D(Double.parseDouble(coordinateStrings[0]), Double.parseDouble(coordinateStrings[1]));
-    }
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /** The label id of an instance that was added through {@link #getLocations()} and has no label yet. */
+    public static final int NO_LABEL = -1;
+
+    /* the columns */
+    private final NameIndex nameIndex;
+    private String[]        names;
+    private double[]        xs;
+    private double[]        ys;
+    private int[]           labelIds;
+    private int             size;
+    private final boolean   fixedInstances; // whether instances can no longer be added or moved, only labelled
 
-    private Map<String, String>  dataLabels;
-    private Map<String, Point2D> locations;
+    /* the interned label table */
+    private final List<String>         labelTable;
+    private final Map<String, Integer> labelIndex;
+
+    /* compatibility views over the columns */
+    private final Map<String, String>  dataLabels;
+    private final Map<String, Point2D> locations;
 
     /** Creates an empty dataset. */
-    public DataSet() {
-        dataLabels = new HashMap<>();
-        locations  = new HashMap<>();
+    public DataSet() { this(DEFAULT_CAPACITY); }
+
+    /** Creates an empty dataset with room for the given number of instances. */
+    public DataSet(int expectedSize) {
+        int capacity = Math.max(expectedSize, 1);
+        nameIndex  = new NameIndex(capacity);
+        names      = new String[capacity];
+        xs         = new double[capacity];
+        ys         = new double[capacity];
+        labelIds   = new int[capacity];
+        labelTable = new ArrayList<>();
+        labelIndex = new HashMap<>();
+        dataLabels = new LabelsView();
+        locations  = new LocationsView();
+        fixedInstances = false;
+    }
+
+    /*
+     * a dataset of the instances of the source, with no labels yet and instances that can no longer change; the names
+     * and coordinates are copied, unless the instances of the source can no longer change either
+     */
+    private DataSet(DataSet source) {
+        if (source.fixedInstances) {
+            nameIndex = source.nameIndex;
+            names     = source.names;
+            xs        = source.xs;
+            ys        = source.ys;
+        } else {
+            nameIndex = new NameIndex(source.size);
+            names     = Arrays.copyOf(source.names, Math.max(source.size, 1));
+            xs        = Arrays.copyOf(source.xs, names.length);
+            ys        = Arrays.copyOf(source.ys, names.length);
+            for (int i = 0; i < source.size; i++)
+                nameIndex.putIfAbsent(names[i], i);
+        }
+        size       = source.size;
+        labelIds   = new int[names.length];
+        Arrays.fill(labelIds, NO_LABEL);
+        labelTable = new ArrayList<>();
+        labelIndex = new HashMap<>();
+        dataLabels = new LabelsView();
+        locations  = new LocationsView();
+        fixedInstances = true;
+    }
+
+    /**
+     * @return a read-only snapshot of the instances of this dataset, with labels of its own, all unset: its instances
+     * can be labelled, but not added or moved. Later changes to this dataset do not show in the snapshot.
+     * @see #withSharedInstances()
+     */
+    public DataSet snapshotInstances() { return fixedInstances ? withSharedInstances() : new DataSet(this); }
+
+    /**
+     * @return a dataset of the same instances with labels of its own, all unset, so that several algorithms can label
+     * the same instances at the same time. The names and coordinates are shared, not copied, which is safe as neither
+     * dataset can add or move instances.
+     * @throws IllegalStateException unless this dataset is a {@link #snapshotInstances() snapshot}, whose instances
+     * cannot change
+     */
+    public DataSet withSharedInstances() {
+        if (!fixedInstances)
+            throw new IllegalStateException("only the instances of a snapshot can be shared");
+        return new DataSet(this);
     }
 
     public Map<String, String> getLabels()     { return dataLabels; }
 
     public Map<String, Point2D> getLocations() { return locations; }
 
+    /** @return the number of instances */
+    public int size() { return size; }
+
+    /** @return the position of the named instance, or {@link NameIndex#ABSENT} if there is no such instance */
+    public int indexOf(String instanceName) { return nameIndex.get(instanceName); }
+
+    public String getName(int i) { return names[i]; }
+
+    public double getX(int i) { return xs[i]; }
+
+    public double getY(int i) { return ys[i]; }
+
+    /** @return the x-coordinates, of which only the first {@link #size()} are valid */
+    public double[] getXs() { return xs; }
+
+    /** @return the y-coordinates, of which only the first {@link #size()} are valid */
+    public double[] getYs() { return ys; }
+
+    /** @return the label ids, of which only the first {@link #size()} are valid */
+    public int[] getLabelIds() { return labelIds; }
+
+    public int getLabelId(int i) { return labelIds[i]; }
+
+    public void setLabelId(int i, int labelId) {
+        if (labelId < 0 || labelId >= labelTable.size())
+            throw new NoSuchElementException();
+        labelIds[i] = labelId;
+    }
+
+    /** @return the label of the instance at the given position */
+    public String labelAt(int i) { return labelIds[i] == NO_LABEL ? null : labelTable.get(labelIds[i]); }
+
+    /** @return the number of distinct labels interned so far (not all of them need to be in use) */
+    public int getNumberOfLabels() { return labelTable.size(); }
+
+    public String getLabel(int labelId) { return labelTable.get(labelId); }
+
+    /** @return the distinct labels, indexed by label id */
+    public List<String> getLabelTable() { return Collections.unmodifiableList(labelTable); }
+
+    /** @return the id of the given label, interning it if it has not been seen before */
+    public int labelIdOf(String label) {
+        Integer id = labelIndex.get(label);
+        if (id == null) {
+            id = labelTable.size();
+            labelTable.add(label);
+            labelIndex.put(label, id);
+        }
+        return id;
+    }
+
     public void updateLabel(String instanceName, String newlabel) {
-        if (dataLabels.get(instanceName) == null)
+        int i = nameIndex.get(instanceName);
+        if (i == NameIndex.ABSENT)
             throw new NoSuchElementException();
-        dataLabels.put(instanceName, newlabel);
+        labelIds[i] = labelIdOf(newlabel);
+    }
+
+    /**
+     * Adds an instance to this dataset, or replaces the label and location of an existing instance with the same name.
+     *
+     * @return the position of the instance
+     */
+    public int addInstance(String instanceName, String label, double x, double y) {
+        checkMovable();
+        int i = positionOf(instanceName);
+        labelIds[i] = labelIdOf(label);
+        xs[i] = x;
+        ys[i] = y;
+        return i;
+    }
+
+    /* the position of the named instance, appending it with no label and no location if it is new */
+    private int positionOf(String instanceName) {
+        if (fixedInstances) { // the index may be shared, so it is only looked up
+            int i = nameIndex.get(instanceName);
+            if (i == NameIndex.ABSENT)
+                checkMovable();
+            return i;
+        }
+        int i = nameIndex.putIfAbsent(instanceName, size);
+        if (i != NameIndex.ABSENT)
+            return i;
+        if (size == names.length)
+            grow();
+        names[size] = instanceName;
+        labelIds[size] = NO_LABEL;
+        xs[size] = Double.NaN;
+        ys[size] = Double.NaN;
+        return size++;
+    }
+
+    private void checkMovable() {
+        if (fixedInstances)
+            throw new UnsupportedOperationException("the instances of a snapshot cannot be added or moved");
+    }
+
+    private void grow() {
+        int capacity = names.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        labelIds = Arrays.copyOf(labelIds, capacity);
     }
 
     private void addInstance(String tsdLine) throws InvalidDataNameException {
         String[] arr = tsdLine.split("\t");
-        dataLabels.put(nameFormatCheck(arr[0]), arr[1]);
-        locations.put(arr[0], locationOf(arr[2]));
+        String[] coordinateStrings = arr[2].trim().split(",");
+        addInstance(nameFormatCheck(arr[0]), arr[1],
+                    Double.parseDouble(coordinateStrings[0]), Double.parseDouble(coordinateStrings[1]));
     }
 
     public static DataSet fromTSDFile(Path tsdFilePath) throws IOException {
@@ -82,20 +261,132 @@ public class DataSet {
         return dataset;
     }
 
-    /** Displays DataSet to the chart in the main UI window */
-    void toChartData(XYChart<Number, Number> chart, ApplicationTemplate applicationTemplate) {
-        Platform.runLater(() -> chart.getData().clear()); // clearing data from previously displayed interval
-        Set<String> labels = new HashSet<>(dataLabels.values());
-        for (String label : labels) {
-            XYChart.Series<Number, Number> series = new XYChart.Series<>();
-            series.setName(label);
-            dataLabels.entrySet().stream().filter(entry -> entry.getValue().equals(label)).forEach(entry -> {
-                Point2D point = locations.get(entry.getKey());
-                series.getData().add(new XYChart.Data<>(point.getX(), point.getY()));
-            });
-            /* displaying data from the main thread */
-            Platform.runLater(() -> ((AppUI) applicationTemplate.getUIComponent()).displayClusteredData(series));
+    /** Writes this dataset to a <code>.tsd</code> file, one instance per line in the order they were added. */
+    public void toTSDFile(Path tsdFilePath) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(tsdFilePath, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < size; i++)
+                writer.append(names[i]).append('\t')
+                      .append(labelAt(i)).append('\t')
+                      .append(Double.toString(xs[i])).append(',')
+                      .append(Double.toString(ys[i])).append('\n');
+        }
+    }
+
+    /**
+     * @return a copy of the label ids of the instances, safe to hand over to another thread
+     * @see ChartBinder
+     */
+    public int[] snapshotLabelIds() { return Arrays.copyOf(labelIds, size); }
+
+    /** A name-to-label view over the columns. Putting a new name adds an instance without a location. */
+    private final class LabelsView extends AbstractMap<String, String> {
+
+        @Override
+        public int size() { return size; }
+
+        @Override
+        public boolean containsKey(Object key) { return key instanceof String && nameIndex.get((String) key) >= 0; }
+
+        @Override
+        public String get(Object key) {
+            int i = key instanceof String ? nameIndex.get((String) key) : NameIndex.ABSENT;
+            return i == NameIndex.ABSENT ? null : labelAt(i);
+        }
+
+        @Override
+        public String put(String key, String value) {
+            int    i        = positionOf(key);
+            String previous = labelAt(i);
+            labelIds[i] = labelIdOf(value);
+            return previous;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new ColumnEntrySet<String>() {
+                @Override
+                String valueAt(int i) { return labelAt(i); }
+
+                @Override
+                void setValueAt(int i, String value) { labelIds[i] = labelIdOf(value); }
+            };
+        }
+    }
+
+    /** A name-to-location view over the columns. Putting a new name adds an instance without a label. */
+    private final class LocationsView extends AbstractMap<String, Point2D> {
+
+        @Override
+        public int size() { return size; }
+
+        @Override
+        public boolean containsKey(Object key) { return key instanceof String && nameIndex.get((String) key) >= 0; }
+
+        @Override
+        public Point2D get(Object key) {
+            int i = key instanceof String ? nameIndex.get((String) key) : NameIndex.ABSENT;
+            return i == NameIndex.ABSENT ? null : new Point2D(xs[i], ys[i]);
+        }
+
+        @Override
+        public Point2D put(String key, Point2D value) {
+            checkMovable();
+            int     i        = positionOf(key);
+            Point2D previous = new Point2D(xs[i], ys[i]);
+            xs[i] = value.getX();
+            ys[i] = value.getY();
+            return previous;
+        }
+
+        @Override
+        public Set<Entry<String, Point2D>> entrySet() {
+            return new ColumnEntrySet<Point2D>() {
+                @Override
+                Point2D valueAt(int i) { return new Point2D(xs[i], ys[i]); }
+
+                @Override
+                void setValueAt(int i, Point2D value) {
+                    checkMovable();
+                    xs[i] = value.getX();
+                    ys[i] = value.getY();
+                }
+            };
+        }
+    }
+
+    /** The entries of a view, in the order in which the instances were added. */
+    private abstract class ColumnEntrySet<V> extends AbstractSet<Map.Entry<String, V>> {
+
+        abstract V valueAt(int i);
+
+        abstract void setValueAt(int i, V value);
+
+        @Override
+        public int size() { return size; }
+
+        @Override
+        public Iterator<Map.Entry<String, V>> iterator() {
+            return new Iterator<Map.Entry<String, V>>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() { return next < size; }
+
+                @Override
+                public Map.Entry<String, V> next() {
+                    if (next >= size)
+                        throw new NoSuchElementException();
+                    final int i = next++;
+                    return new AbstractMap.SimpleEntry<String, V>(names[i], valueAt(i)) {
+                        @Override
+                        public V setValue(V value) {
+                            setValueAt(i, value);
+                            return super.setValue(value);
+                        }
+                    };
+                }
+            };
         }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package algorithms;
+
+/**
+ * A distance function used by the clustering algorithms to find the nearest centroid of an instance. Since only the
+ * ordering of distances matters for that, a kernel may return any value that increases with the true distance, such as
+ * the {@link #SQUARED_EUCLIDEAN squared Euclidean distance}, which needs no square root.
+ * <p>
+ * Besides the distance between two points, a kernel computes the distances from one centroid to a whole block of
+ * instances stored in coordinate arrays. That is the form the assignment step uses, so kernels can override it with a
+ * loop the JIT compiler can vectorize.
+ */
+public interface DistanceKernel {
+
+    DistanceKernel SQUARED_EUCLIDEAN = new SquaredEuclideanKernel();
+
+    double distance(double x1, double y1, double x2, double y2);
+
+    /**
+     * Computes the distances from <code>(x, y)</code> to each instance in <code>[from, to)</code>, writing the distance
+     * of instance <code>i</code> to <code>distances[i - from]</code>.
+     */
+    default void distances(double x, double y, double[] xs, double[] ys, int from, int to, double[] distances) {
+        for (int i = from; i < to; i++)
+            distances[i - from] = distance(x, y, xs[i], ys[i]);
+    }
+
+}
@@ -0,0 +1,41 @@
+package algorithms;
+
+import vilij.templates.ApplicationTemplate;
+
+/**
+ * K-means accelerated by Hamerly's algorithm. Once the centroids start to settle, most instances keep their nearest
+ * centroid from one iteration to the next, and the {@link CentroidBounds distance bounds} kept for each instance prove
+ * that without computing any distance. Only the remaining instances are compared with the centroids.
+ * <p>
+ * The assignments, and therefore the clusters and the number of iterations, are exactly those of
+ * {@link KMeansClusterer}. The bounds rely on the triangle inequality, so with a distance kernel other than the squared
+ * Euclidean distance every instance is compared with every centroid, as in {@link KMeansClusterer}.
+ */
+public class HamerlyKMeansClusterer extends KMeansClusterer {
+
+    private CentroidBounds bounds;
+    private int[]          boundedAssignments; // the assignments the bounds belong to
+
+    public HamerlyKMeansClusterer(DataSet dataset,
+                                  int maxIterations,
+                                  int updateInterval,
+                                  int numberOfClusters,
+                                  int numberOfInstances,
+                                  boolean isContinuous,
+                                  ApplicationTemplate applicationTemplate) {
+        super(dataset, maxIterations, updateInterval, numberOfClusters, numberOfInstances, isContinuous,
+              applicationTemplate);
+    }
+
+    @Override
+    CentroidAccumulator assign(DistanceKernel kernel, double[] xs, double[] ys, int n,
+                               double[] centroidXs, double[] centroidYs, int[] assignments) {
+        if (kernel != DistanceKernel.SQUARED_EUCLIDEAN)
+            return super.assign(kernel, xs, ys, n, centroidXs, centroidYs, assignments);
+        if (assignments != boundedAssignments) { // a new run
+            bounds = new CentroidBounds(n);
+            boundedAssignments = assignments;
+        }
+        return NearestCentroidTask.assign(bounds, xs, ys, n, centroidXs, centroidYs, assignments);
+    }
+}
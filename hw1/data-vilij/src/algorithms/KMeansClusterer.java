@@ -1,15 +1,12 @@
 package algorithms;
 
 import javafx.application.Platform;
-import javafx.geometry.Point2D;
 import ui.AppUI;
+import ui.UpdatePublisher;
 import vilij.templates.ApplicationTemplate;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * @author Ritwik Banerjee
@@ -17,16 +14,24 @@ import java.util.stream.IntStream;
 public class KMeansClusterer extends Clusterer {
 
     private DataSet       dataset;
-    private List<Point2D> centroids;
+    private double[]      centroidXs;
+    private double[]      centroidYs;
+    private int[]         assignments;     // index of the nearest centroid of each instance
+    private int[]         clusterLabelIds; // label id of each cluster in the dataset
+    private CentroidAccumulator clusterSums;   // per-cluster sums of the latest assignment
+    private DistanceKernel distanceKernel = DistanceKernel.SQUARED_EUCLIDEAN;
+    private CentroidSeeding seeding       = CentroidSeeding.K_MEANS_PLUS_PLUS;
 
     private final int           maxIterations;
     private final int           updateInterval;
     private final AtomicBoolean tocontinue;
+    private final StepGate      stepGate = new StepGate(); // lets a run in stages go on
 
     /** added */
     private final boolean       isContinuous;
     private int                 intervalCounter;
     private ApplicationTemplate applicationTemplate;
+    private UpdatePublisher<int[]> publisher; // hands the labels over to the UI
 
     public KMeansClusterer(DataSet dataset,
                            int maxIterations,
@@ -44,6 +49,12 @@ public class KMeansClusterer extends Clusterer {
         this.applicationTemplate = applicationTemplate;
     }
 
+    /** Sets the distance used to find the nearest centroid of each instance. */
+    public void setDistanceKernel(DistanceKernel distanceKernel) { this.distanceKernel = distanceKernel; }
+
+    /** Sets how the initial centroids are chosen; k-means++ unless set otherwise. */
+    public void setSeeding(CentroidSeeding seeding) { this.seeding = seeding; }
+
     @Override
     public int getMaxIterations() { return maxIterations; }
 
@@ -56,150 +67,96 @@ public class KMeansClusterer extends Clusterer {
     @Override
     public void run() {
         AppUI uiComponent = ((AppUI) applicationTemplate.getUIComponent());
+        publisher = uiComponent.newUpdatePublisher(new ChartBinder(uiComponent.getChart(), dataset)::bind);
+        publisher.start();
 
-        if      (isContinuous)  { Platform.runLater(uiComponent::disableToolbar);
-                                  runAlgorithmContinuously();
-                                  Platform.runLater(uiComponent::enableToolbar); }
-
-        else                    { uiComponent.disableToolbar();
-                                  Platform.runLater(uiComponent::showIntervalButton);
-                                  uiComponent.getScrnshotButton().setDisable(false);
-                                  runAlgorithmInIntervals();
-                                  uiComponent.enableToolbar(); }
-
-        uiComponent.getRunButton().setDisable(false);
-        Platform.runLater(uiComponent::generateDataInformation); // back to Algorithm Type menu
-    }
-
-    /** Continuous Run methods */
-    private void runAlgorithmContinuously(){
-        initializeCentroids();
-        int iteration = 0;
-        while (iteration++ < maxIterations & tocontinue.get()) {
-            assignLabels();
-            recomputeCentroids();
-            if(!tocontinue.get()) { showContinuousInterval(); System.out.println("Iteration: " + iteration); return; } // display final iteration if algorithm stops
-            intervalCounter++;
-            if(intervalCounter == updateInterval) {
-                intervalCounter = 0;
-                showContinuousInterval();
-                System.out.println("Iteration: " + iteration); // for internal viewing
-            }
-        }
-    }
-
-    /* called from runAlgorithmContinuously() */
-    private void showContinuousInterval(){
         try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+            if      (isContinuous)  { Platform.runLater(uiComponent::disableToolbar);
+                                      run((algorithm, iteration) -> showContinuousInterval(iteration));
+                                      Platform.runLater(uiComponent::enableToolbar); }
+
+            else                    { uiComponent.disableToolbar();
+                                      Platform.runLater(uiComponent::showIntervalButton);
+                                      uiComponent.getScrnshotButton().setDisable(false);
+                                      run((algorithm, iteration) -> showInterval(iteration));
+                                      uiComponent.enableToolbar(); }
+        } finally { // also when the run is cancelled
+            publisher.stop();
+            uiComponent.getRunButton().setDisable(false);
+            Platform.runLater(uiComponent::generateDataInformation); // back to Algorithm Type menu
         }
-        dataset.toChartData(((AppUI) applicationTemplate.getUIComponent()).getChart(), applicationTemplate);
     }
 
-    /**  Displaying each interval in stages */
-    private void runAlgorithmInIntervals() {
+    /** Runs the algorithm to completion, reporting every update interval and the final iteration to the listener. */
+    @Override
+    public int run(AlgorithmListener listener) {
         initializeCentroids();
         int iteration = 0;
-        while (iteration++ < maxIterations & tocontinue.get()) {
+        while (iteration < maxIterations && tocontinue.get()) {
+            iteration++;
             assignLabels();
             recomputeCentroids();
-            if(!tocontinue.get()) { showInterval(); System.out.println("Iteration: " + iteration); return; } // display final iteration if algorithm stops
-            intervalCounter++;
-            if(intervalCounter == updateInterval) {
+            if (!tocontinue.get() || ++intervalCounter == updateInterval) { // the final iteration is always reported
                 intervalCounter = 0;
-                showInterval();
-                System.out.println("Iteration: " + iteration); // for internal viewing
+                listener.intervalCompleted(this, iteration);
+                AlgorithmExecutor.checkpoint();
             }
         }
+        listener.finished(this, iteration);
+        return iteration;
     }
 
-    private void showInterval(){
-        AppUI uiComponent = ((AppUI) applicationTemplate.getUIComponent());
-
-        synchronized (this) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
+    /* called from run(); the algorithm does not wait for the UI to catch up */
+    private void showContinuousInterval(int iteration){
+        publisher.publish(dataset.snapshotLabelIds());
+        System.out.println("Iteration: " + iteration); // for internal viewing
+    }
 
-        try {
-            uiComponent.getScrnshotButton().setDisable(true); // running algorithm
-            uiComponent.getNextIntervalBtn().setDisable(true);
-            Thread.sleep(1000);
-            uiComponent.getNextIntervalBtn().setDisable(false);
-            uiComponent.getScrnshotButton().setDisable(false); // running algorithm
-        } catch (InterruptedException e) {
-            System.out.println("Interrupted Exception");
-        }
+    /* called from run(), displaying each interval in stages */
+    private void showInterval(int iteration){
+        stepGate.await(); // until the next interval is asked for
 
-        dataset.toChartData(((AppUI) applicationTemplate.getUIComponent()).getChart(), applicationTemplate);
+        publisher.publish(dataset.snapshotLabelIds());
+        System.out.println("Iteration: " + iteration); // for internal viewing
     }
 
-    public void notifyThread(){
-        synchronized (this) {
-            notify();
-        }
-    }
+    @Override
+    public StepGate getStepGate() { return stepGate; }
 
     private void initializeCentroids() {
-        Set<String>  chosen        = new HashSet<>();
-        List<String> instanceNames = new ArrayList<>(dataset.getLabels().keySet());
-        Random       r             = new Random();
-        while (chosen.size() < numberOfClusters) {
-            int i = r.nextInt(instanceNames.size());
-            while (chosen.contains(instanceNames.get(i)))
-                i = (++i % instanceNames.size()); //bugfix
-            chosen.add(instanceNames.get(i));
-        }
-        centroids = chosen.stream().map(name -> dataset.getLocations().get(name)).collect(Collectors.toList());
+        centroidXs = new double[numberOfClusters];
+        centroidYs = new double[numberOfClusters];
+        seeding.seed(dataset.getXs(), dataset.getYs(), dataset.size(), random.nextLong(), centroidXs, centroidYs);
+        assignments = new int[dataset.size()];
+        clusterLabelIds = new int[numberOfClusters];
+        for (int i = 0; i < numberOfClusters; i++)
+            clusterLabelIds[i] = dataset.labelIdOf(Integer.toString(i));
         tocontinue.set(true);
     }
 
     private void assignLabels() {
-        dataset.getLocations().forEach((instanceName, location) -> {
-            double minDistance      = Double.MAX_VALUE;
-            int    minDistanceIndex = -1;
-            for (int i = 0; i < centroids.size(); i++) {
-                double distance = computeDistance(centroids.get(i), location);
-                if (distance < minDistance) {
-                    minDistance = distance;
-                    minDistanceIndex = i;
-                }
-            }
-            dataset.getLabels().put(instanceName, Integer.toString(minDistanceIndex));
-        });
+        clusterSums = assign(distanceKernel, dataset.getXs(), dataset.getYs(), dataset.size(),
+                             centroidXs, centroidYs, assignments);
+        int[] labelIds = dataset.getLabelIds();
+        for (int i = 0; i < assignments.length; i++)
+            labelIds[i] = clusterLabelIds[assignments[i]];
     }
 
-    private void recomputeCentroids() {
-        tocontinue.set(false);
-        IntStream.range(0, numberOfClusters).forEach(i -> {
-            AtomicInteger clusterSize = new AtomicInteger();
-            Point2D sum = dataset.getLabels()
-                    .entrySet()
-                    .stream()
-                    .filter(entry -> i == Integer.parseInt(entry.getValue()))
-                    .map(entry -> dataset.getLocations().get(entry.getKey()))
-                    .reduce(new Point2D(0, 0), (p, q) -> {
-                        clusterSize.incrementAndGet();
-                        return new Point2D(p.getX() + q.getX(), p.getY() + q.getY());
-                    });
-            Point2D newCentroid = new Point2D(sum.getX() / clusterSize.get(), sum.getY() / clusterSize.get());
-            if (!newCentroid.equals(centroids.get(i))) {
-                centroids.set(i, newCentroid);
-                tocontinue.set(true);
-            }
-        });
+    /**
+     * The assignment step: writes the index of the nearest centroid of each of the first <code>n</code> instances into
+     * <code>assignments</code>. Every run starts with a new <code>assignments</code> array, which is then passed to each
+     * iteration's call in turn.
+     *
+     * @return the per-cluster sums and counts of the new assignment
+     */
+    CentroidAccumulator assign(DistanceKernel kernel, double[] xs, double[] ys, int n,
+                               double[] centroidXs, double[] centroidYs, int[] assignments) {
+        return NearestCentroidTask.assign(kernel, xs, ys, n, centroidXs, centroidYs, assignments);
     }
 
-    private static double computeDistance(Point2D p, Point2D q) {
-        return Math.sqrt(Math.pow(p.getX() - q.getX(), 2) + Math.pow(p.getY() - q.getY(), 2));
+    /* the sums were gathered during assignLabels(), in the same pass over the instances */
+    private void recomputeCentroids() {
+        tocontinue.set(clusterSums.updateCentroids(centroidXs, centroidYs));
     }
 
-
-
-
 }
\ No newline at end of file
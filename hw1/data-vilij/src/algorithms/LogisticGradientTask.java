@@ -0,0 +1,107 @@
+package algorithms;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * One batch step of logistic regression as a fork/join task: the gradient and the curvature of the log loss of the
+ * model, summed over the instances in <code>[from, to)</code>, which are split in halves until a block is small enough.
+ * The coordinates are standardized on the fly, by a given mean and scale per axis, so the model is trained in
+ * standardized space without copying the instances, and every block runs over contiguous primitive arrays.
+ * <p>
+ * The result holds the sums over the instances, at the indexes given by the constants of this class, of: the gradient
+ * with respect to the intercept, the x-weight and the y-weight; the log loss; the number of instances; and the six
+ * distinct entries of the Hessian. Instances without a target are skipped.
+ */
+final class LogisticGradientTask extends RecursiveTask<double[]> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Below this many instances, the gradient is computed on the calling thread. */
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    /** The target of an instance that is not trained on, e.g., because it has no label. */
+    static final byte NO_TARGET = -1;
+
+    /* the indexes of the sums in the result */
+    static final int GRADIENT = 0, LOSS = 3, COUNT = 4, HESSIAN_00 = 5, HESSIAN_01 = 6, HESSIAN_02 = 7,
+                     HESSIAN_11 = 8, HESSIAN_12 = 9, HESSIAN_22 = 10;
+
+    private static final int BLOCK_SIZE = 1 << 12;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final byte[]   targets; // 0 or 1, or NO_TARGET
+    private final double[] model;   // the intercept, the x-weight and the y-weight, in standardized space
+    private final double[] scaling; // the mean and the reciprocal of the scale of x, then of y
+    private final int      from;
+    private final int      to;
+
+    private LogisticGradientTask(double[] xs, double[] ys, byte[] targets, double[] model, double[] scaling,
+                                 int from, int to) {
+        this.xs = xs;
+        this.ys = ys;
+        this.targets = targets;
+        this.model = model;
+        this.scaling = scaling;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * @return the sums over the first <code>n</code> instances; computed in parallel on the common pool if there are
+     * enough instances to make it worthwhile
+     */
+    static double[] gradient(double[] xs, double[] ys, byte[] targets, int n, double[] model, double[] scaling) {
+        LogisticGradientTask task = new LogisticGradientTask(xs, ys, targets, model, scaling, 0, n);
+        return n < PARALLEL_THRESHOLD ? task.compute() : ForkJoinPool.commonPool().invoke(task);
+    }
+
+    @Override
+    protected double[] compute() {
+        if (to - from <= BLOCK_SIZE)
+            return sumBlock();
+        int                  middle = (from + to) >>> 1;
+        LogisticGradientTask left   = new LogisticGradientTask(xs, ys, targets, model, scaling, from, middle);
+        LogisticGradientTask right  = new LogisticGradientTask(xs, ys, targets, model, scaling, middle, to);
+        left.fork();
+        double[] sums  = right.compute();
+        double[] other = left.join();
+        for (int i = 0; i < sums.length; i++)
+            sums[i] += other[i];
+        return sums;
+    }
+
+    private double[] sumBlock() {
+        double w0 = model[0], w1 = model[1], w2 = model[2];
+        double meanX = scaling[0], inverseScaleX = scaling[1], meanY = scaling[2], inverseScaleY = scaling[3];
+        double g0 = 0, g1 = 0, g2 = 0, loss = 0;
+        double h00 = 0, h01 = 0, h02 = 0, h11 = 0, h12 = 0, h22 = 0;
+        int    count = 0;
+        for (int i = from; i < to; i++) {
+            byte target = targets[i];
+            if (target == NO_TARGET)
+                continue;
+            double u = (xs[i] - meanX) * inverseScaleX;
+            double v = (ys[i] - meanY) * inverseScaleY;
+            double z = w0 + w1 * u + w2 * v;
+            // p = sigmoid(z) and the log loss, from a single exp of -|z| so neither overflows
+            double e     = Math.exp(-Math.abs(z));
+            double p     = z >= 0 ? 1 / (1 + e) : e / (1 + e);
+            double error = p - target;
+            g0 += error;
+            g1 += error * u;
+            g2 += error * v;
+            double weight = p * (1 - p);
+            h00 += weight;
+            h01 += weight * u;
+            h02 += weight * v;
+            h11 += weight * u * u;
+            h12 += weight * u * v;
+            h22 += weight * v * v;
+            loss += Math.log1p(e) + (target == 1 ? Math.max(-z, 0) : Math.max(z, 0));
+            count++;
+        }
+        return new double[]{ g0, g1, g2, loss, count, h00, h01, h02, h11, h12, h22 };
+    }
+}
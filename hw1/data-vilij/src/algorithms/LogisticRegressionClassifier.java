@@ -0,0 +1,249 @@
+package algorithms;
+
+import javafx.application.Platform;
+import ui.AppUI;
+import ui.UpdatePublisher;
+import vilij.templates.ApplicationTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A linear classifier of two labels, trained by logistic regression. Each iteration is one batch step over all labelled
+ * instances: a single pass, by a {@link LogisticGradientTask}, sums up the gradient and the curvature of the loss, and
+ * the model takes the Newton step they give. That converges in tens of iterations where plain gradient steps take
+ * hundreds, and each iteration costs the same pass over the data. Instances labelled <code>null</code> are not trained
+ * on. The model is trained on standardized coordinates, which keeps the system well conditioned for any scale of data,
+ * and a small L2 penalty on the weights keeps them finite when the labels are linearly separable. A step that increases
+ * the loss is undone and retried at half the length.
+ * <p>
+ * The run stops once the weights stop changing, or after the maximum number of iterations. The
+ * {@link #getOutput() output} is the decision boundary, where both labels are equally likely, as the line
+ * <code>a x + b y = c</code> given by <code>[a, b, c]</code> in the coordinates of the data, scaled so that the larger
+ * of <code>a</code> and <code>b</code> is 1 in magnitude.
+ */
+public class LogisticRegressionClassifier extends Classifier {
+
+    private static final double REGULARIZATION = 1e-4;
+    private static final double TOLERANCE      = 1e-6;  // of the largest change of a weight in an iteration
+    private static final double SINGULAR       = 1e-12; // relative to the product of the diagonal of the Hessian
+
+    private final DataSet       dataset;
+    private byte[]              targets;    // per instance, 0 for the first label, 1 for the second, or none
+    private String[]            classLabels;
+    private double[]            scaling;    // the mean and reciprocal scale of x, then of y
+    private double[]            model;      // the intercept, x-weight and y-weight, in standardized coordinates
+
+    private final int           maxIterations;
+    private final int           updateInterval;
+    private final AtomicBoolean tocontinue;
+    private final StepGate      stepGate = new StepGate(); // lets a run in stages go on
+
+    private final boolean       isContinuous;
+    private int                 intervalCounter;
+    private ApplicationTemplate applicationTemplate;
+    private UpdatePublisher<ClassifierModel> publisher; // hands the output over to the UI
+
+    public LogisticRegressionClassifier(DataSet dataset,
+                                        int maxIterations,
+                                        int updateInterval,
+                                        boolean isContinuous,
+                                        ApplicationTemplate applicationTemplate) {
+        this.dataset = dataset;
+        this.maxIterations = maxIterations;
+        this.updateInterval = updateInterval;
+        this.isContinuous = isContinuous;
+        this.tocontinue = new AtomicBoolean(false);
+        this.applicationTemplate = applicationTemplate;
+    }
+
+    @Override
+    public int getMaxIterations() { return maxIterations; }
+
+    @Override
+    public int getUpdateInterval() { return updateInterval; }
+
+    @Override
+    public boolean tocontinue() { return tocontinue.get(); }
+
+    @Override
+    public StepGate getStepGate() { return stepGate; }
+
+    /** @return the two labels told apart, the first on the side where <code>a x + b y &lt; c</code> */
+    public List<String> getClassLabels() { return Arrays.asList(classLabels); }
+
+    @Override
+    public void run() {
+        AppUI uiComponent = ((AppUI) applicationTemplate.getUIComponent());
+        publisher = uiComponent.newUpdatePublisher(uiComponent::displayIntervalIteration);
+        publisher.start();
+
+        try {
+            if      (isContinuous)  { Platform.runLater(uiComponent::disableToolbar);
+                                      run((algorithm, iteration) -> showContinuousInterval(iteration));
+                                      Platform.runLater(uiComponent::enableToolbar); }
+
+            else                    { Platform.runLater(uiComponent::showIntervalButton);
+                                      uiComponent.enableToolbar();
+                                      uiComponent.getNewButton().setDisable(true);
+                                      uiComponent.getLoadButton().setDisable(true);
+                                      uiComponent.getSaveButton().setDisable(true);
+                                      run((algorithm, iteration) -> showInterval(iteration));
+                                      uiComponent.enableToolbar(); }
+        } finally { // also when the run is cancelled
+            publisher.stop();
+            uiComponent.getRunButton().setDisable(false);
+            Platform.runLater(uiComponent::generateDataInformation); // back to Algorithm Type menu
+        }
+    }
+
+    /**
+     * Trains the model, reporting every update interval and the final iteration to the listener.
+     *
+     * @throws IllegalStateException if the instances do not have exactly two labels, besides <code>null</code>
+     */
+    @Override
+    public int run(AlgorithmListener listener) {
+        initializeModel();
+        double[] previousModel = model.clone();
+        double[] previousStep  = null;
+        double   previousLoss  = Double.POSITIVE_INFINITY;
+        double   stepLength    = 1;
+        int      iteration     = 0;
+        while (iteration < maxIterations && tocontinue.get()) {
+            iteration++;
+            double[] sums = LogisticGradientTask.gradient(dataset.getXs(), dataset.getYs(), targets, dataset.size(),
+                                                          model, scaling);
+            double   loss = sums[LogisticGradientTask.LOSS] / sums[LogisticGradientTask.COUNT]
+                            + REGULARIZATION / 2 * (model[1] * model[1] + model[2] * model[2]);
+            double[] step;
+            if (loss > previousLoss) { // overshot: undo the last step and take a shorter one in the same direction
+                model = previousModel.clone();
+                step = previousStep;
+                stepLength /= 2;
+            } else {
+                step = newtonStep(sums);
+                previousModel = model.clone();
+                previousStep = step;
+                previousLoss = loss;
+                stepLength = 1;
+            }
+            double largest = 0;
+            for (int w = 0; w < model.length; w++) {
+                model[w] -= stepLength * step[w];
+                largest = Math.max(largest, Math.abs(step[w]));
+            }
+            tocontinue.set(stepLength * largest > TOLERANCE);
+            output = boundary(iteration);
+            if (!tocontinue.get() || iteration == maxIterations || ++intervalCounter == updateInterval) {
+                // the final iteration is always reported
+                intervalCounter = 0;
+                listener.intervalCompleted(this, iteration);
+                AlgorithmExecutor.checkpoint();
+            }
+        }
+        listener.finished(this, iteration);
+        return iteration;
+    }
+
+    /*
+     * the Newton step, i.e., the mean gradient solved against the mean Hessian, both including the penalty; the plain
+     * gradient if the Hessian is singular, e.g., when the coordinates do not vary along an axis
+     */
+    private double[] newtonStep(double[] sums) {
+        double   count    = sums[LogisticGradientTask.COUNT];
+        double[] gradient = { sums[LogisticGradientTask.GRADIENT] / count,
+                              sums[LogisticGradientTask.GRADIENT + 1] / count + REGULARIZATION * model[1],
+                              sums[LogisticGradientTask.GRADIENT + 2] / count + REGULARIZATION * model[2] };
+        double h00 = sums[LogisticGradientTask.HESSIAN_00] / count;
+        double h01 = sums[LogisticGradientTask.HESSIAN_01] / count;
+        double h02 = sums[LogisticGradientTask.HESSIAN_02] / count;
+        double h11 = sums[LogisticGradientTask.HESSIAN_11] / count + REGULARIZATION;
+        double h12 = sums[LogisticGradientTask.HESSIAN_12] / count;
+        double h22 = sums[LogisticGradientTask.HESSIAN_22] / count + REGULARIZATION;
+        // the symmetric 3x3 system, by its adjugate
+        double c00 = h11 * h22 - h12 * h12;
+        double c01 = h02 * h12 - h01 * h22;
+        double c02 = h01 * h12 - h02 * h11;
+        double c11 = h00 * h22 - h02 * h02;
+        double c12 = h01 * h02 - h00 * h12;
+        double c22 = h00 * h11 - h01 * h01;
+        double determinant = h00 * c00 + h01 * c01 + h02 * c02;
+        if (!(determinant > SINGULAR * h00 * h11 * h22))
+            return gradient;
+        return new double[]{ (c00 * gradient[0] + c01 * gradient[1] + c02 * gradient[2]) / determinant,
+                             (c01 * gradient[0] + c11 * gradient[1] + c12 * gradient[2]) / determinant,
+                             (c02 * gradient[0] + c12 * gradient[1] + c22 * gradient[2]) / determinant };
+    }
+
+    /* the algorithm does not wait for the UI to catch up */
+    private void showContinuousInterval(int iteration){
+        publisher.publish(output);
+        System.out.println("Iteration " + output); // for internal viewing
+    }
+
+    private void showInterval(int iteration){
+        stepGate.await(); // until the next interval is asked for
+
+        publisher.publish(output);
+        System.out.println("Iteration " + output); // for internal viewing
+    }
+
+    /* the targets of the instances, and the mean and scale of their coordinates */
+    private void initializeModel() {
+        int      n        = dataset.size();
+        int[]    ids      = dataset.getLabelIds();
+        int[]    classIds = { DataSet.NO_LABEL, DataSet.NO_LABEL };
+        double[] xs       = dataset.getXs();
+        double[] ys       = dataset.getYs();
+        targets = new byte[n];
+        double sumX = 0, sumY = 0, sumXX = 0, sumYY = 0;
+        int    count = 0;
+        for (int i = 0; i < n; i++) {
+            int id = ids[i];
+            if (id == DataSet.NO_LABEL || dataset.getLabel(id).equalsIgnoreCase("null")) {
+                targets[i] = LogisticGradientTask.NO_TARGET;
+                continue;
+            }
+            if (classIds[0] == DataSet.NO_LABEL)
+                classIds[0] = id;
+            else if (id != classIds[0] && classIds[1] == DataSet.NO_LABEL)
+                classIds[1] = id;
+            else if (id != classIds[0] && id != classIds[1])
+                throw new IllegalStateException("more than two labels to classify: " + dataset.getLabel(id));
+            targets[i] = (byte) (id == classIds[0] ? 0 : 1);
+            sumX += xs[i];
+            sumY += ys[i];
+            sumXX += xs[i] * xs[i];
+            sumYY += ys[i] * ys[i];
+            count++;
+        }
+        if (classIds[1] == DataSet.NO_LABEL)
+            throw new IllegalStateException("there must be two labels to classify");
+        classLabels = new String[]{ dataset.getLabel(classIds[0]), dataset.getLabel(classIds[1]) };
+        double meanX = sumX / count;
+        double meanY = sumY / count;
+        scaling = new double[]{ meanX, 1 / scale(sumXX / count - meanX * meanX),
+                                meanY, 1 / scale(sumYY / count - meanY * meanY) };
+        model = new double[3];
+        intervalCounter = 0;
+        tocontinue.set(true);
+    }
+
+    /* the standard deviation, or 1 if the coordinates do not vary */
+    private static double scale(double variance) { return variance > 0 ? Math.sqrt(variance) : 1; }
+
+    /*
+     * w0 + w1 (x - mx) sx' + w2 (y - my) sy' = 0 in standardized coordinates is a x + b y = c with a = w1 sx',
+     * b = w2 sy' and c = a mx + b my - w0
+     */
+    private ClassifierModel boundary(int iteration) {
+        double a       = model[1] * scaling[1];
+        double b       = model[2] * scaling[3];
+        double c       = a * scaling[0] + b * scaling[2] - model[0];
+        double largest = Math.max(Math.abs(a), Math.abs(b));
+        double factor  = largest > 0 ? 1 / largest : 0;
+        return new ClassifierModel(iteration, a * factor, b * factor, c * factor);
+    }
+}
@@ -0,0 +1,309 @@
+package algorithms;
+
+import dataprocessors.TSDPointReader;
+import javafx.application.Platform;
+import ui.AppUI;
+import ui.UpdatePublisher;
+import vilij.templates.ApplicationTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mini-batch k-means: every iteration looks at a small random batch of instances instead of all of them. The batch is
+ * assigned to the nearest centroids, and each centroid moves towards the mean of its instances in the batch with a
+ * learning rate of its own, which shrinks as the centroid is assigned more instances. The run stops once an iteration
+ * moves no centroid by more than a small fraction of the extent of the data, or after the maximum number of iterations.
+ * <p>
+ * The instances come either from a {@link DataSet}, like for any other clusterer, or straight from a <code>.tsd</code>
+ * file that is streamed and never loaded. A file is read from start to end, and each batch is sampled from the next
+ * {@value #SAMPLING_WINDOW} batches' worth of instances; at the end of the file, reading starts over. So the memory
+ * used is bounded by the batch size and the number of clusters, whatever the size of the file, and the instances are
+ * {@link #writeLabelledFile labelled} in one more pass over the file once the run is over.
+ */
+public class MiniBatchKMeansClusterer extends Clusterer {
+
+    /** The number of instances per batch, unless specified otherwise. */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /** A batch from a file is sampled from this many batches' worth of consecutive instances. */
+    static final int SAMPLING_WINDOW = 4;
+
+    /* the run stops when no centroid moves by more than this fraction of the diagonal of the first batch's bounds */
+    private static final double TOLERANCE = 1e-4;
+
+    private final DataSet       dataset;     // null when streaming from a file
+    private final Path          tsdFilePath; // null when clustering a dataset
+    private final int           batchSize;
+
+    private double[]            centroidXs;
+    private double[]            centroidYs;
+    private long[]              seen;        // per cluster, the number of instances assigned to it so far
+    private double[]            batchXs;
+    private double[]            batchYs;
+    private int[]               batchAssignments;
+    private int[]               assignments; // index of the nearest centroid of each instance of the dataset
+    private double              tolerance;
+
+    /* the position in the file, while streaming */
+    private TSDPointReader      reader;
+
+    private final int           maxIterations;
+    private final int           updateInterval;
+    private final AtomicBoolean tocontinue;
+    private final StepGate      stepGate = new StepGate(); // lets a run in stages go on
+
+    private final boolean       isContinuous;
+    private int                 intervalCounter;
+    private ApplicationTemplate applicationTemplate;
+    private UpdatePublisher<int[]> publisher; // hands the labels over to the UI
+
+    public MiniBatchKMeansClusterer(DataSet dataset,
+                                    int maxIterations,
+                                    int updateInterval,
+                                    int numberOfClusters,
+                                    int numberOfInstances,
+                                    boolean isContinuous,
+                                    ApplicationTemplate applicationTemplate) {
+        super(numberOfClusters, numberOfInstances);
+        this.dataset = dataset;
+        this.tsdFilePath = null;
+        this.batchSize = DEFAULT_BATCH_SIZE;
+        this.maxIterations = maxIterations;
+        this.updateInterval = updateInterval;
+        this.isContinuous = isContinuous;
+        this.tocontinue = new AtomicBoolean(false);
+        this.applicationTemplate = applicationTemplate;
+    }
+
+    /**
+     * Clusters the instances of a <code>.tsd</code> file without loading it, for running without the UI.
+     *
+     * @see #writeLabelledFile(Path)
+     */
+    public MiniBatchKMeansClusterer(Path tsdFilePath,
+                                    int batchSize,
+                                    int maxIterations,
+                                    int updateInterval,
+                                    int numberOfClusters) {
+        super(numberOfClusters, Integer.MAX_VALUE); // the number of instances is not known up front
+        this.dataset = null;
+        this.tsdFilePath = tsdFilePath;
+        this.batchSize = batchSize;
+        this.maxIterations = maxIterations;
+        this.updateInterval = updateInterval;
+        this.isContinuous = true;
+        this.tocontinue = new AtomicBoolean(false);
+    }
+
+    @Override
+    public int getMaxIterations() { return maxIterations; }
+
+    @Override
+    public int getUpdateInterval() { return updateInterval; }
+
+    @Override
+    public boolean tocontinue() { return tocontinue.get(); }
+
+    @Override
+    public void run() {
+        AppUI uiComponent = ((AppUI) applicationTemplate.getUIComponent());
+        publisher = uiComponent.newUpdatePublisher(new ChartBinder(uiComponent.getChart(), dataset)::bind);
+        publisher.start();
+
+        try {
+            if      (isContinuous)  { Platform.runLater(uiComponent::disableToolbar);
+                                      run((algorithm, iteration) -> showContinuousInterval(iteration));
+                                      Platform.runLater(uiComponent::enableToolbar); }
+
+            else                    { uiComponent.disableToolbar();
+                                      Platform.runLater(uiComponent::showIntervalButton);
+                                      uiComponent.getScrnshotButton().setDisable(false);
+                                      run((algorithm, iteration) -> showInterval(iteration));
+                                      uiComponent.enableToolbar(); }
+        } finally { // also when the run is cancelled
+            publisher.stop();
+            uiComponent.getRunButton().setDisable(false);
+            Platform.runLater(uiComponent::generateDataInformation); // back to Algorithm Type menu
+        }
+    }
+
+    /**
+     * Runs the algorithm to completion, reporting every update interval and the final iteration to the listener. The
+     * instances of a dataset are labelled by their nearest centroid whenever an interval is reported.
+     *
+     * @throws UncheckedIOException if the file being clustered cannot be read or does not follow the format
+     */
+    @Override
+    public int run(AlgorithmListener listener) {
+        try {
+            initializeCentroids();
+            int iteration = 0;
+            while (iteration < maxIterations && tocontinue.get()) {
+                iteration++;
+                int    size  = nextBatch();
+                double shift = NearestCentroidTask.assign(DistanceKernel.SQUARED_EUCLIDEAN, batchXs, batchYs, size,
+                                                          centroidXs, centroidYs, batchAssignments)
+                                                  .updateCentroids(centroidXs, centroidYs, seen);
+                tocontinue.set(shift > tolerance);
+                if (!tocontinue.get() || iteration == maxIterations || ++intervalCounter == updateInterval) {
+                    // the final iteration is always reported, so the dataset ends up labelled
+                    intervalCounter = 0;
+                    assignLabels();
+                    listener.intervalCompleted(this, iteration);
+                    AlgorithmExecutor.checkpoint();
+                }
+            }
+            listener.finished(this, iteration);
+            return iteration;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            closeReader();
+        }
+    }
+
+    /**
+     * Writes the instances of the clustered file to another <code>.tsd</code> file, each labelled by its nearest
+     * centroid, in a single pass over the clustered file.
+     */
+    public void writeLabelledFile(Path output) throws IOException {
+        try (TSDPointReader points = TSDPointReader.open(tsdFilePath);
+             Writer         writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            while (points.next())
+                writer.append(points.getName()).append('\t')
+                      .append(Integer.toString(nearestCentroid(points.getX(), points.getY()))).append('\t')
+                      .append(Double.toString(points.getX())).append(',')
+                      .append(Double.toString(points.getY())).append('\n');
+        }
+    }
+
+    /* called from run(); the algorithm does not wait for the UI to catch up */
+    private void showContinuousInterval(int iteration){
+        publisher.publish(dataset.snapshotLabelIds());
+        System.out.println("Iteration: " + iteration); // for internal viewing
+    }
+
+    /* called from run(), displaying each interval in stages */
+    private void showInterval(int iteration){
+        stepGate.await(); // until the next interval is asked for
+
+        publisher.publish(dataset.snapshotLabelIds());
+        System.out.println("Iteration: " + iteration); // for internal viewing
+    }
+
+    @Override
+    public StepGate getStepGate() { return stepGate; }
+
+    /* the centroids are seeded by k-means++ among the instances of the first batch */
+    private void initializeCentroids() throws IOException {
+        batchXs = new double[batchSize];
+        batchYs = new double[batchSize];
+        batchAssignments = new int[batchSize];
+        centroidXs = new double[numberOfClusters];
+        centroidYs = new double[numberOfClusters];
+        seen = new long[numberOfClusters];
+
+        int    size = nextBatch();
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            minX = Math.min(minX, batchXs[i]);
+            maxX = Math.max(maxX, batchXs[i]);
+            minY = Math.min(minY, batchYs[i]);
+            maxY = Math.max(maxY, batchYs[i]);
+        }
+        tolerance = TOLERANCE * Math.hypot(maxX - minX, maxY - minY);
+
+        CentroidSeeding.K_MEANS_PLUS_PLUS.seed(batchXs, batchYs, size, random.nextLong(), centroidXs, centroidYs);
+        tocontinue.set(true);
+    }
+
+    /* fills the batch arrays and returns the number of instances in the batch */
+    private int nextBatch() throws IOException {
+        if (dataset == null)
+            return nextBatchFromFile();
+        int n = dataset.size();
+        if (n == 0)
+            throw new IOException("there are no instances to cluster");
+        int size = Math.min(batchSize, n);
+        for (int i = 0; i < size; i++) {
+            int instance = size == n ? i : random.nextInt(n);
+            batchXs[i] = dataset.getX(instance);
+            batchYs[i] = dataset.getY(instance);
+        }
+        return size;
+    }
+
+    /* reservoir-samples the batch from the next few batches' worth of instances, starting over at the end of the file */
+    private int nextBatchFromFile() throws IOException {
+        int     read     = 0;
+        boolean reopened = false;
+        while (read < batchSize * SAMPLING_WINDOW) {
+            if (reader == null) {
+                reader = TSDPointReader.open(tsdFilePath);
+                reopened = true;
+            }
+            if (!reader.next()) {
+                closeReader();
+                if (read > 0 || reopened) // the end of the file ends the batch
+                    break;
+                continue;
+            }
+            int slot = read < batchSize ? read : random.nextInt(read + 1);
+            if (slot < batchSize) {
+                batchXs[slot] = reader.getX();
+                batchYs[slot] = reader.getY();
+            }
+            read++;
+        }
+        if (read == 0)
+            throw new IOException(tsdFilePath + " has no instances to cluster");
+        return Math.min(read, batchSize);
+    }
+
+    private void closeReader() {
+        if (reader == null)
+            return;
+        try {
+            reader.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        reader = null;
+    }
+
+    /* labels every instance of the dataset by its nearest centroid; a file is labelled only when it is written */
+    private void assignLabels() {
+        if (dataset == null)
+            return;
+        if (assignments == null || assignments.length != dataset.size())
+            assignments = new int[dataset.size()];
+        NearestCentroidTask.assign(DistanceKernel.SQUARED_EUCLIDEAN, dataset.getXs(), dataset.getYs(), dataset.size(),
+                                   centroidXs, centroidYs, assignments);
+        int[] clusterLabelIds = new int[numberOfClusters];
+        for (int c = 0; c < numberOfClusters; c++)
+            clusterLabelIds[c] = dataset.labelIdOf(Integer.toString(c));
+        int[] labelIds = dataset.getLabelIds();
+        for (int i = 0; i < assignments.length; i++)
+            labelIds[i] = clusterLabelIds[assignments[i]];
+    }
+
+    private int nearestCentroid(double x, double y) {
+        int    nearest         = 0;
+        double nearestDistance = Double.MAX_VALUE;
+        for (int c = 0; c < numberOfClusters; c++) {
+            double distance = DistanceKernel.SQUARED_EUCLIDEAN.distance(x, y, centroidXs[c], centroidYs[c]);
+            if (distance < nearestDistance) {
+                nearest = c;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+}
@@ -0,0 +1,81 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash table from instance names to <code>int</code> values, typically the position of the
+ * instance in a set of columnar arrays. Unlike a {@link java.util.HashMap}, it allocates no entry objects and no boxed
+ * {@link Integer}s; the keys and values live in two parallel arrays that are probed linearly.
+ */
+public final class NameIndex {
+
+    public static final int ABSENT = -1;
+
+    private String[] keys;
+    private int[]    values;
+    private int      size;
+    private int      mask;
+
+    public NameIndex() { this(16); }
+
+    public NameIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        keys = new String[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public int size() { return size; }
+
+    /** @return the value mapped to the given name, or {@link #ABSENT} if there is none */
+    public int get(String name) {
+        for (int slot = slotOf(name); keys[slot] != null; slot = (slot + 1) & mask)
+            if (keys[slot].equals(name))
+                return values[slot];
+        return ABSENT;
+    }
+
+    /**
+     * Maps the name to the value, unless the name is already present.
+     *
+     * @return the value already mapped to the name, or {@link #ABSENT} if the name was added
+     */
+    public int putIfAbsent(String name, int value) {
+        int slot = slotOf(name);
+        for (; keys[slot] != null; slot = (slot + 1) & mask)
+            if (keys[slot].equals(name))
+                return values[slot];
+        keys[slot] = name;
+        values[slot] = value;
+        if (++size * 2 > keys.length)
+            rehash();
+        return ABSENT;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    private int slotOf(String name) {
+        int h = name.hashCode() * 0x9E3779B9; // spreads the low bits that the mask keeps
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void rehash() {
+        String[] oldKeys   = keys;
+        int[]    oldValues = values;
+        keys = new String[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null)
+                continue;
+            int slot = slotOf(oldKeys[i]);
+            while (keys[slot] != null)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package algorithms;
+
+import algorithms.spatial.KDTree;
+import algorithms.spatial.SpatialIndex;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The assignment step of k-means as a fork/join task. The instances in <code>[from, to)</code> are split in halves
+ * until a block is small enough, and every block writes the index of each instance's nearest centroid into a shared
+ * <code>int</code> array. Blocks never overlap, so no synchronization is needed and nothing is allocated per instance.
+ * <p>
+ * In the same pass, every block sums up its instances per cluster in a {@link CentroidAccumulator}, and the blocks'
+ * accumulators are merged on the way back up, so the result of the task is everything the update step needs.
+ * <p>
+ * With many centroids and the Euclidean distance, each instance looks its nearest centroid up in a {@link KDTree} over
+ * the centroids instead of comparing it with every centroid. Given the {@link CentroidBounds} of the previous
+ * assignment, the instances whose nearest centroid cannot have changed are skipped altogether.
+ */
+final class NearestCentroidTask extends RecursiveTask<CentroidAccumulator> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Below this many instances, the assignment runs on the calling thread. */
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    /** From this many centroids on, the nearest centroid is looked up in a k-d tree. */
+    static final int KD_TREE_THRESHOLD = 128;
+
+    private static final int BLOCK_SIZE = 1 << 12;
+
+    /* per-thread scratch space for one block: the distances to one centroid, and the nearest distances so far */
+    private static final ThreadLocal<double[][]> SCRATCH =
+            ThreadLocal.withInitial(() -> new double[][]{ new double[BLOCK_SIZE], new double[BLOCK_SIZE] });
+
+    private final DistanceKernel kernel;
+    private final SpatialIndex   centroidIndex; // null when comparing with every centroid
+    private final CentroidBounds bounds;        // null when not skipping instances by their bounds
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] centroidXs;
+    private final double[] centroidYs;
+    private final int[]    assignments;
+    private final int      from;
+    private final int      to;
+
+    private NearestCentroidTask(DistanceKernel kernel, SpatialIndex centroidIndex, CentroidBounds bounds,
+                                double[] xs, double[] ys, double[] centroidXs, double[] centroidYs, int[] assignments,
+                                int from, int to) {
+        this.kernel = kernel;
+        this.centroidIndex = centroidIndex;
+        this.bounds = bounds;
+        this.xs = xs;
+        this.ys = ys;
+        this.centroidXs = centroidXs;
+        this.centroidYs = centroidYs;
+        this.assignments = assignments;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Assigns each of the first <code>n</code> instances to its nearest centroid, in parallel on the common pool if
+     * there are enough instances to make it worthwhile.
+     *
+     * @return the per-cluster sums and counts of the new assignment
+     */
+    static CentroidAccumulator assign(DistanceKernel kernel, double[] xs, double[] ys, int n,
+                                      double[] centroidXs, double[] centroidYs, int[] assignments) {
+        SpatialIndex centroidIndex = centroidXs.length >= KD_TREE_THRESHOLD && kernel == DistanceKernel.SQUARED_EUCLIDEAN
+                                     ? new KDTree(centroidXs, centroidYs, centroidXs.length)
+                                     : null;
+        return invoke(new NearestCentroidTask(kernel, centroidIndex, null, xs, ys, centroidXs, centroidYs,
+                                              assignments, 0, n));
+    }
+
+    /**
+     * Assigns each of the first <code>n</code> instances to its nearest centroid by the Euclidean distance, like
+     * {@link #assign(DistanceKernel, double[], double[], int, double[], double[], int[])}, but skips the instances
+     * whose bounds from the previous assignment show that their nearest centroid has not changed. The blocks and the
+     * order in which their sums are merged are the same, so the result is identical.
+     *
+     * @return the per-cluster sums and counts of the new assignment
+     */
+    static CentroidAccumulator assign(CentroidBounds bounds, double[] xs, double[] ys, int n,
+                                      double[] centroidXs, double[] centroidYs, int[] assignments) {
+        bounds.moveCentroids(centroidXs, centroidYs);
+        CentroidAccumulator result = invoke(new NearestCentroidTask(DistanceKernel.SQUARED_EUCLIDEAN, null, bounds,
+                                                                    xs, ys, centroidXs, centroidYs, assignments, 0, n));
+        bounds.assigned();
+        return result;
+    }
+
+    private static CentroidAccumulator invoke(NearestCentroidTask task) {
+        return task.to - task.from < PARALLEL_THRESHOLD ? task.compute() : ForkJoinPool.commonPool().invoke(task);
+    }
+
+    @Override
+    protected CentroidAccumulator compute() {
+        if (to - from <= BLOCK_SIZE) {
+            assignBlock();
+            CentroidAccumulator accumulator = new CentroidAccumulator(centroidXs.length);
+            accumulator.addAll(xs, ys, assignments, from, to);
+            return accumulator;
+        }
+        int                 middle = (from + to) >>> 1;
+        NearestCentroidTask left   = new NearestCentroidTask(kernel, centroidIndex, bounds, xs, ys,
+                                                              centroidXs, centroidYs, assignments, from, middle);
+        NearestCentroidTask right  = new NearestCentroidTask(kernel, centroidIndex, bounds, xs, ys,
+                                                              centroidXs, centroidYs, assignments, middle, to);
+        left.fork();
+        CentroidAccumulator rightResult = right.compute();
+        return left.join().merge(rightResult);
+    }
+
+    /* one centroid at a time against the whole block, so the kernel runs over contiguous coordinates */
+    private void assignBlock() {
+        if (bounds != null) {
+            bounds.assignBlock(xs, ys, centroidXs, centroidYs, assignments, from, to);
+            return;
+        }
+        if (centroidIndex != null) {
+            for (int i = from; i < to; i++)
+                assignments[i] = centroidIndex.nearest(xs[i], ys[i]);
+            return;
+        }
+        double[][] scratch   = SCRATCH.get();
+        double[]   distances = scratch[0];
+        double[]   nearest   = scratch[1];
+        int        n         = to - from;
+        // the first centroid is taken up front, so an instance gets a centroid even if every distance overflows to
+        // infinity or is NaN
+        kernel.distances(centroidXs[0], centroidYs[0], xs, ys, from, to, nearest);
+        Arrays.fill(assignments, from, to, 0);
+        for (int c = 1; c < centroidXs.length; c++) {
+            kernel.distances(centroidXs[c], centroidYs[c], xs, ys, from, to, distances);
+            for (int i = 0; i < n; i++) {
+                if (distances[i] < nearest[i]) {
+                    nearest[i] = distances[i];
+                    assignments[from + i] = c;
+                }
+            }
+        }
+    }
+}
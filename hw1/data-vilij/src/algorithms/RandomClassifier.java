@@ -2,11 +2,11 @@ package algorithms;
 
 import javafx.application.Platform;
 import ui.AppUI;
+import ui.UpdatePublisher;
 import vilij.templates.ApplicationTemplate;
 
 import java.io.IOException;
 import java.nio.file.Paths;
-import java.util.Arrays;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -22,11 +22,13 @@ public class RandomClassifier extends Classifier {
     private DataSet dataset;
     private ApplicationTemplate applicationTemplate;
     private int intervalCounter;
+    private UpdatePublisher<ClassifierModel> publisher; // hands the output over to the UI
 
     private final int maxIterations;
     private final int updateInterval;
 
     private final AtomicBoolean tocontinue;
+    private final StepGate stepGate = new StepGate(); // lets a run in stages go on
 
     @Override
     public int getMaxIterations() {
@@ -59,131 +61,84 @@ public class RandomClassifier extends Classifier {
     @Override
     public void run() {
         AppUI uiComponent = ((AppUI) applicationTemplate.getUIComponent());
+        publisher = uiComponent.newUpdatePublisher(uiComponent::displayIntervalIteration);
+        publisher.start();
 
-        if      (tocontinue())  { Platform.runLater(uiComponent::disableToolbar);
-                                  runAlgorithmContinuously();
-                                  Platform.runLater(uiComponent::enableToolbar); }
-
-        else if (!tocontinue()) { Platform.runLater(uiComponent::showIntervalButton);
-                                  uiComponent.enableToolbar();
-                                  uiComponent.getNewButton().setDisable(true);
-                                  uiComponent.getLoadButton().setDisable(true);
-                                  uiComponent.getSaveButton().setDisable(true);
-                                  runAlgorithmInIntervals();
-                                  uiComponent.enableToolbar();}
-
-        uiComponent.getRunButton().setDisable(false);
-        Platform.runLater(uiComponent::generateDataInformation); // back to Algorithm Type menu
+        try {
+            if      (tocontinue())  { Platform.runLater(uiComponent::disableToolbar);
+                                      run((algorithm, iteration) -> showContinuousInterval(iteration));
+                                      Platform.runLater(uiComponent::enableToolbar); }
+
+            else if (!tocontinue()) { Platform.runLater(uiComponent::showIntervalButton);
+                                      uiComponent.enableToolbar();
+                                      uiComponent.getNewButton().setDisable(true);
+                                      uiComponent.getLoadButton().setDisable(true);
+                                      uiComponent.getSaveButton().setDisable(true);
+                                      run((algorithm, iteration) -> showInterval(iteration));
+                                      uiComponent.enableToolbar();}
+        } finally { // also when the run is cancelled
+            publisher.stop();
+            uiComponent.getRunButton().setDisable(false);
+            Platform.runLater(uiComponent::generateDataInformation); // back to Algorithm Type menu
+        }
     }
 
-    private void runAlgorithmContinuously(){
+    /** Runs the algorithm to completion, reporting every update interval and the final iteration to the listener. */
+    @Override
+    public int run(AlgorithmListener listener) {
         for (int i = 1; i <= maxIterations; i++) {
             int xCoefficient =  new Long(-1 * Math.round((2 * RAND.nextDouble() - 1) * 10)).intValue();
             int yCoefficient = 10;
             int constant     = RAND.nextInt(11);
 
             // this is the real output of the classifier
-            output = Arrays.asList(xCoefficient, yCoefficient, constant);
+            output = new ClassifierModel(i, xCoefficient, yCoefficient, constant);
 
             intervalCounter++;
 
             if(intervalCounter == updateInterval) {
                 intervalCounter = 0;
-                showContinuousInterval();
+                listener.intervalCompleted(this, i);
+                AlgorithmExecutor.checkpoint();
             }
 
-            // everything below is just for internal viewing of how the output is changing
-            // in the final project, such changes will be dynamically visible in the UI
-            if (i % updateInterval == 0) {
-                System.out.printf("Iteration number %d: ", i);
-                flush();
-            }
             if (i > maxIterations * .6 && RAND.nextDouble() < 0.05) {
-                System.out.printf("Iteration number %d: ", i);
-                flush();
-                showContinuousInterval();
-                break;
+                listener.intervalCompleted(this, i);
+                AlgorithmExecutor.checkpoint();
+                listener.finished(this, i);
+                return i;
             }
         }
+        listener.finished(this, maxIterations);
+        return maxIterations;
     }
 
-    private void showContinuousInterval(){
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-        Platform.runLater(
-                () -> ((AppUI) applicationTemplate.getUIComponent()).displayIntervalIteration(output.get(0), output.get(1), output.get(2))
-        );
-    }
-
-    private void runAlgorithmInIntervals() {
-        for(int i = 1; i <= maxIterations; i++){
-            int xCoefficient =  new Long(-1 * Math.round((2 * RAND.nextDouble() - 1) * 10)).intValue();
-            int yCoefficient = 10;
-            int constant     = RAND.nextInt(11);
-
-            // this is the real output of the classifier
-            output = Arrays.asList(xCoefficient, yCoefficient, constant);
-
-            intervalCounter++;
+    /* the algorithm does not wait for the UI to catch up */
+    private void showContinuousInterval(int iteration){
+        publisher.publish(output);
 
-            if(intervalCounter == updateInterval) {
-                intervalCounter = 0;
-                showInterval();
-            }
-
-            // everything below is just for internal viewing of how the output is changing
-            // in the final project, such changes will be dynamically visible in the UI
-            if (i % updateInterval == 0) {
-                System.out.printf("Iteration number %d: ", i);
-                flush();
-            }
-            if (i > maxIterations * .6 && RAND.nextDouble() < 0.05) {
-                System.out.printf("Iteration number %d: ", i);
-                flush();
-                showInterval();
-                break;
-            }
-        }
-        ((AppUI) applicationTemplate.getUIComponent()).getRunButton().setDisable(false);
+        // for internal viewing of how the output is changing
+        System.out.printf("Iteration number %d: ", iteration);
+        flush();
     }
 
-    private void showInterval(){
-        AppUI uiComponent = ((AppUI) applicationTemplate.getUIComponent());
-        synchronized (this) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
-        try {
-            uiComponent.getNextIntervalBtn().setDisable(true);
-            uiComponent.getScrnshotButton().setDisable(true); // simulating running algorithm
-            Thread.sleep(1000);
-            uiComponent.getNextIntervalBtn().setDisable(false);
-            uiComponent.getScrnshotButton().setDisable(false); // simulating running algorithm
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+    private void showInterval(int iteration){
+        stepGate.await(); // until the next interval is asked for
 
-        Platform.runLater(
-                () -> ((AppUI) applicationTemplate.getUIComponent()).displayIntervalIteration(output.get(0), output.get(1), output.get(2))
-        );
+        publisher.publish(output);
+
+        // for internal viewing of how the output is changing
+        System.out.printf("Iteration number %d: ", iteration);
+        flush();
     }
 
     // for internal viewing only
     private void flush() {
-        System.out.printf("%d\t%d\t%d%n", output.get(0), output.get(1), output.get(2));
+        System.out.printf("%.0f\t%.0f\t%.0f%n", output.getCoefficient(0), output.getCoefficient(1), output.getCoefficient(2));
     }
 
-    public void notifyThread(){
-        synchronized (this) {
-            notify();
-        }
-    }
+    @Override
+    public StepGate getStepGate() { return stepGate; }
 
     /**
      * A placeholder main method to just make sure this code runs smoothly
@@ -191,7 +146,10 @@ public class RandomClassifier extends Classifier {
     public static void main(String... args) throws IOException {
         DataSet dataset = DataSet.fromTSDFile(Paths.get("/Users/nickdimonti/IdeaProjects/ndimonti/cse219homework/hw1/data-vilij/resources/data/sample-data.tsd"));
         RandomClassifier classifier = new RandomClassifier(dataset, 100, 5, true, null);
-        classifier.run(); // no multithreading yet
+        classifier.run((algorithm, iteration) -> {
+            System.out.printf("Iteration number %d: ", iteration);
+            classifier.flush();
+        }); // no multithreading yet
     }
 }
 
@@ -2,22 +2,23 @@ package algorithms;
 
 import javafx.application.Platform;
 import ui.AppUI;
+import ui.UpdatePublisher;
 import vilij.templates.ApplicationTemplate;
 
-import java.util.Random;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class RandomClusterer extends Clusterer{
 
-    private static final Random RAND = new Random();
     private DataSet dataSet;
     private ApplicationTemplate applicationTemplate;
     private int intervalCounter;
+    private UpdatePublisher<int[]> publisher; // hands the labels over to the UI
 
     private final int maxIterations;
     private final int updateInterval;
 
     private final AtomicBoolean tocontinue;
+    private final StepGate stepGate = new StepGate(); // lets a run in stages go on
 
     @Override
     public int getMaxIterations() { return maxIterations; }
@@ -47,90 +48,70 @@ public class RandomClusterer extends Clusterer{
     @Override
     public void run() {
         AppUI uiComponent = ((AppUI) applicationTemplate.getUIComponent());
+        publisher = uiComponent.newUpdatePublisher(new ChartBinder(uiComponent.getChart(), dataSet)::bind);
+        publisher.start();
 
-        if      (tocontinue())  { Platform.runLater(uiComponent::disableToolbar);
-                                  runAlgorithmContinuously();
-                                  Platform.runLater(uiComponent::enableToolbar); }
-
-        else if (!tocontinue()) { Platform.runLater(uiComponent::showIntervalButton);
-                                  uiComponent.disableToolbar();
-                                  uiComponent.getScrnshotButton().setDisable(false);
-                                  runAlgorithmInIntervals();
-                                  uiComponent.enableToolbar(); }
-
-        uiComponent.getRunButton().setDisable(false);
-        Platform.runLater(uiComponent::generateDataInformation); // back to Algorithm Type menu
-    }
-
-    /** Displaying each interval continuously */
-    private void runAlgorithmContinuously(){
-        for (int i = 1; i <= maxIterations; i++) {
-
-            dataSet.getLabels().forEach((x,y) -> dataSet.updateLabel(x, String.valueOf(RAND.nextInt(numberOfClusters) + 1)));
-
-            intervalCounter++;
-
-            if(intervalCounter == updateInterval) {
-                intervalCounter = 0;
-                showContinuousInterval();
-                System.out.println("Iteration: " + i); // for internal viewing
-            }
-        }
-    }
-
-    private void showContinuousInterval(){
         try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+            if      (tocontinue())  { Platform.runLater(uiComponent::disableToolbar);
+                                      run((algorithm, iteration) -> showContinuousInterval(iteration));
+                                      Platform.runLater(uiComponent::enableToolbar); }
+
+            else if (!tocontinue()) { Platform.runLater(uiComponent::showIntervalButton);
+                                      uiComponent.disableToolbar();
+                                      uiComponent.getScrnshotButton().setDisable(false);
+                                      run((algorithm, iteration) -> showInterval(iteration));
+                                      uiComponent.enableToolbar(); }
+        } finally { // also when the run is cancelled
+            publisher.stop();
+            uiComponent.getRunButton().setDisable(false);
+            Platform.runLater(uiComponent::generateDataInformation); // back to Algorithm Type menu
         }
-        dataSet.toChartData(((AppUI) applicationTemplate.getUIComponent()).getChart(), applicationTemplate);
     }
 
-    /**  Displaying each interval in stages */
-    private void runAlgorithmInIntervals() {
+    /** Runs the algorithm to completion, reporting every update interval to the listener. */
+    @Override
+    public int run(AlgorithmListener listener) {
         for (int i = 1; i <= maxIterations; i++) {
 
-            dataSet.getLabels().forEach((x,y) -> dataSet.updateLabel(x, String.valueOf(RAND.nextInt(numberOfClusters) + 1)));
+            assignRandomLabels();
 
             intervalCounter++;
 
             if(intervalCounter == updateInterval) {
                 intervalCounter = 0;
-                showInterval();
-                System.out.println("Iteration: " + i); // for internal viewing
+                listener.intervalCompleted(this, i);
+                AlgorithmExecutor.checkpoint();
             }
         }
+        listener.finished(this, maxIterations);
+        return maxIterations;
     }
 
-    private void showInterval(){
-        AppUI uiComponent = ((AppUI) applicationTemplate.getUIComponent());
-
-        synchronized (this) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
+    /* displaying each interval continuously; the algorithm does not wait for the UI to catch up */
+    private void showContinuousInterval(int iteration){
+        publisher.publish(dataSet.snapshotLabelIds());
+        System.out.println("Iteration: " + iteration); // for internal viewing
+    }
 
-        try {
-            uiComponent.getScrnshotButton().setDisable(true); // simulating running algorithm
-            uiComponent.getNextIntervalBtn().setDisable(true);
-            Thread.sleep(1000);
-            uiComponent.getScrnshotButton().setDisable(false); // simulating running algorithm
-            uiComponent.getNextIntervalBtn().setDisable(false);
-        } catch (InterruptedException e) {
-            System.out.println("InterruptedException");
-        }
+    /* displaying each interval in stages */
+    private void showInterval(int iteration){
+        stepGate.await(); // until the next interval is asked for
 
-        dataSet.toChartData(((AppUI) applicationTemplate.getUIComponent()).getChart(), applicationTemplate);
+        publisher.publish(dataSet.snapshotLabelIds());
+        System.out.println("Iteration: " + iteration); // for internal viewing
     }
 
-    public void notifyThread(){
-        synchronized (this) {
-            notify();
-        }
+    /* labels are interned once, so each iteration only writes label ids */
+    private void assignRandomLabels() {
+        int[] clusterLabelIds = new int[numberOfClusters];
+        for (int i = 0; i < numberOfClusters; i++)
+            clusterLabelIds[i] = dataSet.labelIdOf(String.valueOf(i + 1));
+        int[] labelIds = dataSet.getLabelIds();
+        for (int i = 0; i < dataSet.size(); i++)
+            labelIds[i] = clusterLabelIds[random.nextInt(numberOfClusters)];
     }
+
+    @Override
+    public StepGate getStepGate() { return stepGate; }
     
 }
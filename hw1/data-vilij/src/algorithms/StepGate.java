@@ -0,0 +1,85 @@
+package algorithms;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lets an algorithm running in stages go on one update interval at a time. The algorithm thread {@link #await awaits}
+ * the gate after every interval, and each step {@link #advance granted} by the UI lets one interval through. Steps are
+ * counted, so a step granted before the algorithm reaches the gate is never lost, and a wakeup that grants no step
+ * never lets an interval through. The gate can also be {@link #open opened}, letting the run go on to completion, or
+ * {@link #cancel cancelled}, stopping it at the gate.
+ * <p>
+ * The gate holds no lock: the steps are an atomic counter, and the waiting thread is parked until a step is granted.
+ * There must be at most one thread awaiting the gate; any thread may grant steps.
+ */
+public final class StepGate {
+
+    private static final long OPEN = Long.MAX_VALUE; // the number of steps of an open gate, which never runs out
+
+    private final AtomicLong steps = new AtomicLong();
+    private volatile Thread  waiter;                  // the thread parked at the gate, if any
+    private volatile boolean cancelled;
+
+    /** Lets the given number of intervals through, in addition to any steps not taken yet. */
+    public void advance(int count) {
+        if (count <= 0)
+            return;
+        long current;
+        do {
+            current = steps.get();
+            if (current == OPEN)
+                return;
+        } while (!steps.compareAndSet(current, Math.min(current + count, OPEN - 1)));
+        wake();
+    }
+
+    /** Lets every interval through from now on, i.e., runs the algorithm to completion. */
+    public void open() {
+        steps.set(OPEN);
+        wake();
+    }
+
+    /** Makes the algorithm stop the next time it awaits the gate, or right away if it is waiting. */
+    public void cancel() {
+        cancelled = true;
+        wake();
+    }
+
+    public boolean isOpen() { return steps.get() == OPEN; }
+
+    public boolean isCancelled() { return cancelled; }
+
+    /**
+     * Called by the algorithm after an interval, and returns once a step is granted, taking it.
+     *
+     * @throws CancellationException if the gate was cancelled, or the waiting thread was interrupted
+     */
+    public void await() {
+        while (true) {
+            if (cancelled)
+                throw new CancellationException();
+            long current = steps.get();
+            if (current == OPEN)
+                return;
+            if (current > 0) {
+                if (steps.compareAndSet(current, current - 1))
+                    return;
+                continue;
+            }
+            waiter = Thread.currentThread();
+            if (steps.get() == 0 && !cancelled) // a step granted before the waiter was published is seen here
+                LockSupport.park(this);
+            waiter = null;
+            if (Thread.currentThread().isInterrupted())
+                throw new CancellationException();
+        }
+    }
+
+    private void wake() {
+        Thread parked = waiter;
+        if (parked != null)
+            LockSupport.unpark(parked);
+    }
+}
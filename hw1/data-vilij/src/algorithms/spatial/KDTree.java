@@ -0,0 +1,129 @@
+package algorithms.spatial;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A 2-d tree, stored implicitly in a single permutation of the point positions: the points of a subtree occupy a range
+ * of the permutation with the splitting point in the middle, the points below the split on its left and the points
+ * above on its right. The tree splits on x and y by turns. Building takes <i>O(n log n)</i> time, and a nearest-
+ * neighbour query visits <i>O(log n)</i> points on average.
+ * <p>
+ * It suits queries spread over points with no regular layout, such as finding the nearest of many centroids.
+ */
+public final class KDTree implements SpatialIndex {
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int[]    order;
+
+    /** Indexes the first <code>n</code> points of the coordinate arrays. */
+    public KDTree(double[] xs, double[] ys, int n) {
+        this.xs = xs;
+        this.ys = ys;
+        this.order = new int[n];
+        for (int i = 0; i < n; i++)
+            order[i] = i;
+        build(0, n, true);
+    }
+
+    @Override
+    public int size() { return order.length; }
+
+    @Override
+    public int nearest(double x, double y) { return nearest(0, order.length, true, x, y, NONE); }
+
+    @Override
+    public void forEachInRange(double minX, double minY, double maxX, double maxY, IntConsumer action) {
+        forEachInRange(0, order.length, true, minX, minY, maxX, maxY, action);
+    }
+
+    private void build(int from, int to, boolean splitX) {
+        while (to - from > 1) {
+            int middle = (from + to) >>> 1;
+            select(from, to, middle, splitX);
+            build(from, middle, !splitX);
+            from = middle + 1; // the right half, without another level of recursion
+            splitX = !splitX;
+        }
+    }
+
+    /* rearranges order[from, to) so that the point at k splits it: no point before k is above it, none after below */
+    private void select(int from, int to, int k, boolean splitX) {
+        double[] coordinates = splitX ? xs : ys;
+        int      lo          = from;
+        int      hi          = to - 1;
+        while (lo < hi) {
+            double pivot = coordinates[order[(lo + hi) >>> 1]];
+            int    i     = lo;
+            int    j     = hi;
+            while (i <= j) {
+                while (coordinates[order[i]] < pivot) i++;
+                while (coordinates[order[j]] > pivot) j--;
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i++] = order[j];
+                    order[j--] = swap;
+                }
+            }
+            if (k <= j)
+                hi = j;
+            else if (k >= i)
+                lo = i;
+            else
+                return;
+        }
+    }
+
+    /* the nearer of the best point so far and the points in order[from, to) */
+    private int nearest(int from, int to, boolean splitX, double x, double y, int best) {
+        if (from >= to)
+            return best;
+        int middle = (from + to) >>> 1;
+        int point  = order[middle];
+        best = nearer(point, best, x, y);
+        double offset = splitX ? x - xs[point] : y - ys[point];
+        if (offset < 0) {
+            best = nearest(from, middle, !splitX, x, y, best);
+            if (offset * offset <= distance(best, x, y))
+                best = nearest(middle + 1, to, !splitX, x, y, best);
+        } else {
+            best = nearest(middle + 1, to, !splitX, x, y, best);
+            if (offset * offset <= distance(best, x, y))
+                best = nearest(from, middle, !splitX, x, y, best);
+        }
+        return best;
+    }
+
+    private int nearer(int point, int best, double x, double y) {
+        if (best == NONE)
+            return point;
+        double d     = distance(point, x, y);
+        double dBest = distance(best, x, y);
+        return d < dBest || (d == dBest && point < best) ? point : best;
+    }
+
+    private double distance(int point, double x, double y) {
+        if (point == NONE)
+            return Double.POSITIVE_INFINITY;
+        double dx = xs[point] - x;
+        double dy = ys[point] - y;
+        return dx * dx + dy * dy;
+    }
+
+    private void forEachInRange(int from, int to, boolean splitX, double minX, double minY, double maxX, double maxY,
+                                IntConsumer action) {
+        if (from >= to)
+            return;
+        int    middle = (from + to) >>> 1;
+        int    point  = order[middle];
+        double x      = xs[point];
+        double y      = ys[point];
+        if (x >= minX && x <= maxX && y >= minY && y <= maxY)
+            action.accept(point);
+        double split = splitX ? x : y;
+        if ((splitX ? minX : minY) <= split)
+            forEachInRange(from, middle, !splitX, minX, minY, maxX, maxY, action);
+        if ((splitX ? maxX : maxY) >= split)
+            forEachInRange(middle + 1, to, !splitX, minX, minY, maxX, maxY, action);
+    }
+}
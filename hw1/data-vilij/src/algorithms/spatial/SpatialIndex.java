@@ -0,0 +1,31 @@
+package algorithms.spatial;
+
+import java.util.function.IntConsumer;
+
+/**
+ * An index over a set of points in the plane, answering nearest-neighbour and range queries without looking at every
+ * point. The points are given as two coordinate arrays, and are referred to by their position in those arrays. The
+ * index keeps the arrays rather than copying them, so the coordinates must not change while it is in use.
+ * <p>
+ * Queries only read the index, so a single index can be queried from many threads at once.
+ */
+public interface SpatialIndex {
+
+    /** The result of a nearest-neighbour query on an empty index. */
+    int NONE = -1;
+
+    /** @return the number of indexed points */
+    int size();
+
+    /**
+     * Finds the point nearest to <code>(x, y)</code> by Euclidean distance. Of several points at the same distance, the
+     * one with the lowest position is returned, as a linear scan would.
+     *
+     * @return the position of the nearest point, or {@link #NONE} if the index is empty
+     */
+    int nearest(double x, double y);
+
+    /** Passes the position of every point inside the given rectangle, bounds included, to the action. */
+    void forEachInRange(double minX, double minY, double maxX, double maxY, IntConsumer action);
+
+}
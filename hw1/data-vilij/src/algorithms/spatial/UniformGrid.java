@@ -0,0 +1,147 @@
+package algorithms.spatial;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A uniform grid of square-ish cells over the bounding box of the points, with about {@link #POINTS_PER_CELL} points
+ * per cell. The points are sorted by cell once, so each cell's points are contiguous in a single array. A query only
+ * looks at the cells around its position, which makes it fast for points spread fairly evenly, and for small range
+ * queries such as finding the point under the mouse.
+ */
+public final class UniformGrid implements SpatialIndex {
+
+    public static final int POINTS_PER_CELL = 4;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int      size;
+
+    private final double   minX;
+    private final double   minY;
+    private final double   cellWidth;
+    private final double   cellHeight;
+    private final int      columns;
+    private final int      rows;
+    private final int[]    cellStarts; // the points of cell c are cellPoints[cellStarts[c], cellStarts[c + 1])
+    private final int[]    cellPoints;
+
+    /** Indexes the first <code>n</code> points of the coordinate arrays. */
+    public UniformGrid(double[] xs, double[] ys, int n) {
+        this.xs = xs;
+        this.ys = ys;
+        this.size = n;
+
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        if (n == 0)
+            minX = maxX = minY = maxY = 0;
+        double width  = Math.max(maxX - minX, Double.MIN_NORMAL);
+        double height = Math.max(maxY - minY, Double.MIN_NORMAL);
+        double cells  = Math.max((double) n / POINTS_PER_CELL, 1);
+        double side   = Math.sqrt(width * height / cells);
+        this.minX = minX;
+        this.minY = minY;
+        this.columns = (int) Math.max(Math.min(Math.ceil(width / side), cells), 1);
+        this.rows = (int) Math.max(Math.min(Math.ceil(cells / columns), cells), 1);
+        this.cellWidth = width / columns;
+        this.cellHeight = height / rows;
+
+        // a counting sort of the points by cell
+        int[] cellOfPoint = new int[n];
+        cellStarts = new int[columns * rows + 1];
+        for (int i = 0; i < n; i++) {
+            cellOfPoint[i] = column(xs[i]) + row(ys[i]) * columns;
+            cellStarts[cellOfPoint[i] + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++)
+            cellStarts[c + 1] += cellStarts[c];
+        int[] next = cellStarts.clone();
+        cellPoints = new int[n];
+        for (int i = 0; i < n; i++)
+            cellPoints[next[cellOfPoint[i]]++] = i;
+    }
+
+    @Override
+    public int size() { return size; }
+
+    /**
+     * Searches rings of cells around the cell of <code>(x, y)</code>, moving outwards until no cell further out can
+     * hold a nearer point.
+     */
+    @Override
+    public int nearest(double x, double y) {
+        if (size == 0)
+            return NONE;
+        int    column    = column(x);
+        int    row       = row(y);
+        int    best      = NONE;
+        double bestD     = Double.POSITIVE_INFINITY;
+        double ringWidth = Math.min(cellWidth, cellHeight);
+        int    maxRing   = Math.max(columns, rows);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            double reach = (ring - 1) * ringWidth; // no point in this ring or beyond is nearer than this
+            if (ring > 0 && reach > 0 && reach * reach > bestD)
+                break;
+            for (int r = row - ring; r <= row + ring; r++) {
+                if (r < 0 || r >= rows)
+                    continue;
+                boolean edgeRow = r == row - ring || r == row + ring;
+                int     step    = edgeRow ? 1 : 2 * ring; // on the other rows, only the ring's first and last cell
+                for (int c = column - ring; c <= column + ring; c += Math.max(step, 1)) {
+                    if (c < 0 || c >= columns)
+                        continue;
+                    int cell = c + r * columns;
+                    for (int k = cellStarts[cell]; k < cellStarts[cell + 1]; k++) {
+                        int    point = cellPoints[k];
+                        double dx    = xs[point] - x;
+                        double dy    = ys[point] - y;
+                        double d     = dx * dx + dy * dy;
+                        if (best == NONE || d < bestD || (d == bestD && point < best)) { // even at infinity
+                            bestD = d;
+                            best = point;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void forEachInRange(double minX, double minY, double maxX, double maxY, IntConsumer action) {
+        if (size == 0 || maxX < minX || maxY < minY)
+            return;
+        int fromColumn = column(minX);
+        int toColumn   = column(maxX);
+        int fromRow    = row(minY);
+        int toRow      = row(maxY);
+        for (int r = fromRow; r <= toRow; r++)
+            for (int c = fromColumn; c <= toColumn; c++) {
+                int cell = c + r * columns;
+                for (int k = cellStarts[cell]; k < cellStarts[cell + 1]; k++) {
+                    int    point = cellPoints[k];
+                    double x     = xs[point];
+                    double y     = ys[point];
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY)
+                        action.accept(point);
+                }
+            }
+    }
+
+    /* the column of the given x coordinate, clamped to the grid */
+    private int column(double x) {
+        int column = (int) ((x - minX) / cellWidth);
+        return Math.max(0, Math.min(column, columns - 1));
+    }
+
+    private int row(double y) {
+        int row = (int) ((y - minY) / cellHeight);
+        return Math.max(0, Math.min(row, rows - 1));
+    }
+}
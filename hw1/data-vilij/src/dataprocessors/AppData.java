@@ -1,7 +1,6 @@
 package dataprocessors;
 
 import actions.AppActions;
-import javafx.scene.control.Button;
 import settings.AppPropertyTypes;
 import ui.AppUI;
 import vilij.components.DataComponent;
@@ -15,6 +14,8 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -30,36 +31,131 @@ public class AppData implements DataComponent {
 
     private boolean dataIsValid;
 
+    /* data is loaded on a single background thread, one load at a time */
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "data-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private TSDLoadTask         loading; // the load still running, if any
+
     public AppData(ApplicationTemplate applicationTemplate) {
         this.processor = new TSDProcessor();
         this.applicationTemplate = applicationTemplate;
     }
 
+    /**
+     * Loads the data in a <code>.tsd</code> file in the background, parsing it directly from a memory mapping of the
+     * file instead of first reading it into a {@link String}.
+     *
+     * @param dataFilePath the path of the data file
+     * @see #loadData(Path, Runnable)
+     */
     @Override
-    public void loadData(Path dataFilePath) {
+    public void loadData(Path dataFilePath) { loadData(dataFilePath, () -> { }); }
+
+    /**
+     * Loads the data in a <code>.tsd</code> file as {@link #loadData(Path)} does: read, parsed, validated and
+     * summarized by a {@link TSDLoadTask}, so the application thread never waits for the file. The progress is shown
+     * until the load is done, and a load still running is dropped. Must be called on the JavaFX application thread.
+     *
+     * @param dataFilePath the path of the data file
+     * @param whenDone     run on the JavaFX application thread once the data is shown, or rejected, or the load is
+     *                     cancelled
+     */
+    public void loadData(Path dataFilePath, Runnable whenDone) {
+        PropertyManager manager = applicationTemplate.manager;
+        load(new TSDLoadTask(dataFilePath, manager.getPropertyValue(AppPropertyTypes.LOAD_PROGRESS_BYTES.name())),
+             whenDone);
+    }
+
+    /** Loads the data in a string, as {@link #loadData(Path, Runnable)} loads a file. */
+    public void loadData(String dataString, Runnable whenDone) {
+        PropertyManager manager = applicationTemplate.manager;
+        load(new TSDLoadTask(dataString, manager.getPropertyValue(AppPropertyTypes.LOAD_PROGRESS_CHARACTERS.name())),
+             whenDone);
+    }
+
+    /** Cancels the load still running, if any, which then ends as a load of no data. */
+    public void cancelLoading() {
+        if (loading != null) { loading.cancel(); }
+    }
+
+    private void load(TSDLoadTask task, Runnable whenDone) {
+        dropLoading();
+        loading = task;
+        task.setOnSucceeded(event -> loaded(task, whenDone));
+        task.setOnFailed(event -> loaded(task, whenDone));
+        task.setOnCancelled(event -> loaded(task, whenDone));
+        ((AppUI) applicationTemplate.getUIComponent()).showLoadProgress(task);
+        loader.execute(task);
+    }
+
+    /* cancels the load still running, if any, without anything being done about it */
+    private void dropLoading() {
+        if (loading == null) { return; }
+        loading.cancel();
+        loading = null;
+        ((AppUI) applicationTemplate.getUIComponent()).hideLoadProgress();
+    }
 
+    /* called on the JavaFX application thread once a load is done; a dropped load is ignored */
+    private void loaded(TSDLoadTask task, Runnable whenDone) {
+        if (task != loading) { return; }
+        loading = null;
+        ((AppUI) applicationTemplate.getUIComponent()).hideLoadProgress();
+        processor = task.getProcessor(); // the data, or as far as it got, for the line of the error
+        switch (task.getState()) {
+            case SUCCEEDED:
+                validateProcessedData();
+                break;
+            case FAILED:
+                Throwable error = task.getException();
+                if (error instanceof TSDProcessor.DuplicateNameException)
+                    duplicateDataHelper(((TSDProcessor.DuplicateNameException) error).getName());
+                else
+                    invalidDataHelper();
+                break;
+            default: // cancelled
+                cancelledLoadHelper();
+        }
+        whenDone.run();
+    }
+
+    /* called once a load has succeeded; duplicates were rejected, and the labels summarized, in the background */
+    private void validateProcessedData() {
+        AppUI uiComponent = ((AppUI) applicationTemplate.getUIComponent());
+        uiComponent.duplicateFound = false;
+        setDataIsValid(true);
+        uiComponent.generateDataInformation();
     }
 
-    public void loadData(String dataString) {
+    private void duplicateDataHelper(String duplicate) {
         AppActions actionComponent = ((AppActions) applicationTemplate.getActionComponent());
         AppUI      uiComponent     = ((AppUI) applicationTemplate.getUIComponent());
-        Button     scrnshotButton  = ((AppUI) applicationTemplate.getUIComponent()).getScrnshotButton();
-        try {
-            processor.processString(dataString);
-            ((AppUI) applicationTemplate.getUIComponent()).checkForDuplicates();
-            if(uiComponent.duplicateFound) { uiComponent.clear();
-                                             actionComponent.duplicateHandlingHelper(); }
-            else {
-                processor.generateLabelInfo();
-                setDataIsValid(true);
-                ((AppUI) applicationTemplate.getUIComponent()).generateDataInformation();
-            }
-        } catch (Exception e) {
-            scrnshotButton.setDisable(true);
-            uiComponent.clear();
-            errorHandlingHelper();
-            setDataIsValid(false);
-        }
+        uiComponent.duplicate = duplicate;
+        uiComponent.duplicateFound = true;
+        uiComponent.clear();
+        clear();
+        setDataIsValid(false);
+        actionComponent.duplicateHandlingHelper();
+    }
+
+    private void cancelledLoadHelper() {
+        AppUI uiComponent = ((AppUI) applicationTemplate.getUIComponent());
+        uiComponent.duplicateFound = false;
+        uiComponent.clear();
+        clear();
+        setDataIsValid(false);
+    }
+
+    private void invalidDataHelper() {
+        AppUI uiComponent = ((AppUI) applicationTemplate.getUIComponent());
+        uiComponent.duplicateFound = false;
+        uiComponent.getScrnshotButton().setDisable(true);
+        uiComponent.clear();
+        errorHandlingHelper();
+        setDataIsValid(false);
     }
 
     @Override
@@ -73,6 +169,7 @@ public class AppData implements DataComponent {
 
     @Override
     public void clear() {
+        dropLoading();
         processor.clear();
     }
 
@@ -0,0 +1,96 @@
+package dataprocessors;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The summary statistics of the instances of a data set: per axis, the bounds, the mean and the variance of the
+ * coordinates, both over all instances and over the instances of each label. The statistics are kept up to date as
+ * instances are {@link #add added}, in constant time per instance, so they are computed once, as the data is parsed,
+ * and read as often as the data is displayed without another pass over it. The means and variances are updated by
+ * Welford's method, which stays accurate for coordinates far from zero.
+ */
+public final class DataStatistics {
+
+    /** The bounds, mean and variance of the coordinates of some instances. */
+    public static final class Summary {
+
+        private long   count;
+        private double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        private double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        private double meanX, meanY;
+        private double squaresX, squaresY; // the sums of the squared deviations from the mean
+
+        private Summary() { }
+
+        private void add(double x, double y) {
+            count++;
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+            double deltaX = x - meanX;
+            double deltaY = y - meanY;
+            meanX += deltaX / count;
+            meanY += deltaY / count;
+            squaresX += deltaX * (x - meanX);
+            squaresY += deltaY * (y - meanY);
+        }
+
+        public long getCount() { return count; }
+
+        /** @return the least x-coordinate, or positive infinity if there are no instances */
+        public double getMinX() { return minX; }
+
+        /** @return the greatest x-coordinate, or negative infinity if there are no instances */
+        public double getMaxX() { return maxX; }
+
+        /** @return the least y-coordinate, or positive infinity if there are no instances */
+        public double getMinY() { return minY; }
+
+        /** @return the greatest y-coordinate, or negative infinity if there are no instances */
+        public double getMaxY() { return maxY; }
+
+        public double getMeanX() { return meanX; }
+
+        public double getMeanY() { return meanY; }
+
+        /** @return the population variance of the x-coordinates, or 0 if there are no instances */
+        public double getVarianceX() { return count == 0 ? 0 : squaresX / count; }
+
+        /** @return the population variance of the y-coordinates, or 0 if there are no instances */
+        public double getVarianceY() { return count == 0 ? 0 : squaresY / count; }
+
+        @Override
+        public String toString() {
+            return String.format("%d instances, x in [%g, %g] (mean %g, variance %g), y in [%g, %g] (mean %g, variance %g)",
+                                 count, minX, maxX, meanX, getVarianceX(), minY, maxY, meanY, getVarianceY());
+        }
+    }
+
+    private Summary                    total   = new Summary();
+    private final Map<String, Summary> byLabel = new LinkedHashMap<>(); // in the order the labels first appear
+
+    /** Adds an instance with the given label and coordinates. */
+    public void add(String label, double x, double y) {
+        total.add(x, y);
+        byLabel.computeIfAbsent(label, l -> new Summary()).add(x, y);
+    }
+
+    /** Forgets all instances. */
+    public void clear() {
+        total = new Summary();
+        byLabel.clear();
+    }
+
+    /** @return the summary of all instances */
+    public Summary getSummary() { return total; }
+
+    /** @return the summary of the instances with the given label, or <code>null</code> if there are none */
+    public Summary getSummary(String label) { return byLabel.get(label); }
+
+    /** @return the labels of the instances, in the order they first appeared */
+    public Set<String> getLabels() { return Collections.unmodifiableSet(byLabel.keySet()); }
+}
@@ -0,0 +1,95 @@
+package dataprocessors;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link Reader} that decodes a UTF-8 file straight out of a memory-mapped {@link FileChannel}. The file is mapped
+ * one window at a time, so no part of it is ever copied onto the heap except for the characters being read. Files
+ * larger than a single mapping (2 GB) are handled by re-mapping from the first byte that has not been decoded yet, which
+ * also takes care of multi-byte characters that straddle two windows.
+ *
+ * @see TSDProcessor#processFile(Path)
+ */
+final class MappedFileReader extends Reader {
+
+    private static final long WINDOW_SIZE = 1L << 28; // 256 MB
+
+    private final FileChannel    channel;
+    private final long           size;
+    private final long           windowSize;
+    private final CharsetDecoder decoder;
+
+    private MappedByteBuffer window;
+    private long             windowStart;
+    private boolean          flushed;
+
+    MappedFileReader(Path path) throws IOException {
+        this(path, WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize the number of bytes mapped at a time, e.g., a few bytes to test reading across windows; at least
+     *                   4, the length of the longest UTF-8 character, so every window holds a whole character
+     */
+    MappedFileReader(Path path, long windowSize) throws IOException {
+        if (windowSize < 4)
+            throw new IllegalArgumentException("a window of " + windowSize + " bytes cannot hold every character");
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+                                             .onMalformedInput(CodingErrorAction.REPLACE)
+                                             .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        map(0);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0)
+            return 0;
+        if (flushed)
+            return -1;
+        CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+        while (true) {
+            boolean lastWindow = windowStart + window.limit() == size;
+            CoderResult result = decoder.decode(window, out, lastWindow);
+            if (result.isError())
+                result.throwException();
+            if (lastWindow && !window.hasRemaining()) {
+                decoder.flush(out);
+                flushed = true;
+            }
+            if (out.position() > off)
+                return out.position() - off;
+            if (lastWindow)
+                return -1;
+            map(windowStart + window.position());
+        }
+    }
+
+    /** @return the size of the file, in bytes */
+    long size() { return size; }
+
+    /** @return the number of bytes of the file decoded so far */
+    long position() { return windowStart + window.position(); }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+    }
+}
@@ -0,0 +1,58 @@
+package dataprocessors;
+
+import javafx.concurrent.Task;
+
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Loads data off the JavaFX application thread: reads a <code>.tsd</code> file or string, parses and validates it, and
+ * builds its label information, all into a {@link TSDProcessor} of its own. As the input is read, the task reports the
+ * fraction read as its progress and the amounts read as its message, and a cancelled task stops at the next chunk of
+ * the input.
+ * <p>
+ * No other thread touches the processor while the task runs. Once the task has succeeded, the whole processor is its
+ * value, handed over to the application thread together with the task's completion, and the task never touches it
+ * again.
+ *
+ * @see AppData#loadData(Path, Runnable)
+ */
+final class TSDLoadTask extends Task<TSDProcessor> {
+
+    private final TSDProcessor processor = new TSDProcessor();
+    private final Path         dataFilePath;   // the file to load, or null to load the string
+    private final String       dataString;
+    private final String       progressFormat; // formats the amount read and the size of the input
+
+    TSDLoadTask(Path dataFilePath, String progressFormat) {
+        this.dataFilePath = dataFilePath;
+        this.dataString = null;
+        this.progressFormat = progressFormat;
+    }
+
+    TSDLoadTask(String dataString, String progressFormat) {
+        this.dataFilePath = null;
+        this.dataString = dataString;
+        this.progressFormat = progressFormat;
+    }
+
+    /**
+     * @return the processor the data is loaded into, e.g., for the line of the error once the task has failed; only to
+     * be read once the task is done
+     */
+    TSDProcessor getProcessor() { return processor; }
+
+    @Override
+    protected TSDProcessor call() throws Exception {
+        TSDProcessor.ProgressListener listener = (read, total) -> {
+            if (isCancelled())
+                throw new CancellationException();
+            updateProgress(read, total);
+            updateMessage(String.format(progressFormat, read, total));
+        };
+        if (dataFilePath != null) { processor.processFile(dataFilePath, listener); }
+        else                      { processor.processString(dataString, listener); }
+        processor.generateLabelInfo();
+        return processor;
+    }
+}
@@ -0,0 +1,71 @@
+package dataprocessors;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+
+/**
+ * Reads the instances of <code>.tsd</code> data one at a time, for algorithms that stream over data too large to hold
+ * in memory. Only the current instance is kept, so reading a file of any size takes a fixed amount of memory. Unlike
+ * {@link TSDProcessor}, which reports the last error after reading everything, reading stops at the first line that
+ * does not follow the format.
+ */
+public final class TSDPointReader implements Closeable {
+
+    private final Reader       reader;
+    private final TSDTokenizer tokenizer;
+    private int                lineNumber;
+
+    private String name;
+    private double x;
+    private double y;
+
+    public TSDPointReader(Reader reader) {
+        this.reader = reader;
+        this.tokenizer = new TSDTokenizer(reader);
+    }
+
+    /** Opens a <code>.tsd</code> file for reading straight out of a memory mapping of the file. */
+    public static TSDPointReader open(Path tsdFilePath) throws IOException {
+        return new TSDPointReader(new MappedFileReader(tsdFilePath));
+    }
+
+    /**
+     * Advances to the next instance.
+     *
+     * @return <code>false</code> if there are no more instances
+     * @throws IOException if the input cannot be read, or its next line does not follow the <code>.tsd</code> format
+     */
+    public boolean next() throws IOException {
+        if (!tokenizer.nextLine())
+            return false;
+        lineNumber++;
+        try {
+            tokenizer.tokenize();
+            if (!tokenizer.hasLabel()) { throw new Exception("invalid label name"); }
+            name = tokenizer.name();
+            if (!name.startsWith("@")) { throw new TSDProcessor.InvalidDataNameException(name); }
+            if (!tokenizer.hasLocation()) { throw new Exception("invalid location"); }
+            x = tokenizer.x();
+            y = tokenizer.y();
+        } catch (Exception e) {
+            throw new IOException("line " + lineNumber + ": " + e.getClass().getSimpleName() + ": " + e.getMessage(), e);
+        }
+        return true;
+    }
+
+    /** @return the line of the current instance, counting from 1 */
+    public int getLineNumber() { return lineNumber; }
+
+    public String getName() { return name; }
+
+    public String getLabel() { return tokenizer.label(); }
+
+    public double getX() { return x; }
+
+    public double getY() { return y; }
+
+    @Override
+    public void close() throws IOException { reader.close(); }
+}
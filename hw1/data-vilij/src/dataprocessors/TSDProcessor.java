@@ -1,11 +1,22 @@
 package dataprocessors;
 
+import algorithms.NameIndex;
 import javafx.geometry.Point2D;
 import javafx.scene.chart.XYChart;
+import ui.CanvasScatterChart;
+import ui.PointDownsampler;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Stream;
+import java.util.function.LongSupplier;
 
 /**
  * The data files used by this data visualization applications follow a tab-separated format, where each data point is
@@ -28,12 +39,51 @@ public final class TSDProcessor {
         }
     }
 
+    public static class DuplicateNameException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+
+        public DuplicateNameException(String name, int line, int firstLine) {
+            super(String.format("Duplicate name '%s' on line %d, first given on line %d.", name, line, firstLine));
+            this.name = name;
+        }
+
+        /** @return the name given twice */
+        public String getName() { return name; }
+    }
+
+    /**
+     * Told how far the processing of an input has got, after every chunk of it is read. A listener can stop the
+     * processing by throwing an unchecked exception, such as a {@link java.util.concurrent.CancellationException}, which
+     * the processing passes on.
+     */
+    public interface ProgressListener {
+
+        ProgressListener NONE = (read, total) -> { };
+
+        /**
+         * @param read  how much of the input has been read: bytes of a file, or characters of a string
+         * @param total the size of the input, in the same unit
+         */
+        void progress(long read, long total);
+    }
+
     private Map<String, String>  dataLabels;
     private Map<String, Point2D> dataPoints;
 
+    /* kept up to date as the points are parsed */
+    private final DataStatistics statistics = new DataStatistics();
+
+    private final PointDownsampler downsampler = new PointDownsampler(PointDownsampler.NODE_CELL_SIZE);
+
+    /* the points exported by the latest call to toChartData */
+    private double[]             chartXs;
+    private double[]             chartYs;
+    private String[]             chartNames;
+
     public AtomicInteger        lineOfError;
-    public ArrayList<String>    pointNames;
-    public ArrayList<String>    orderedPointNames;
     public LinkedList<String>   distinctLabels;
     public Integer              numOfInstances;
     public Integer              numOfDistinctLabels;
@@ -42,13 +92,24 @@ public final class TSDProcessor {
     public TSDProcessor() {
         dataLabels = new HashMap<>();
         dataPoints = new HashMap<>();
-        pointNames = new ArrayList<>();
     }
 
     /** getters */
     public Map getDataPoints(){ return dataPoints; }
     public Map getDataLabels(){ return dataLabels; }
 
+    /**
+     * The summary statistics of the data, computed as it was parsed, so reading them costs no pass over the data.
+     *
+     * @return the bounds, means and variances of the coordinates, over all points and per label
+     */
+    public DataStatistics getStatistics() { return statistics; }
+
+    /** The coordinates and names of the points exported by the latest call to {@link #toChartData}, by position. */
+    public double[] getChartXs()   { return chartXs; }
+    public double[] getChartYs()   { return chartYs; }
+    public String[] getChartNames(){ return chartNames; }
+
     /**
      * Processes the data and populated two {@link Map} objects with the data.
      *
@@ -56,61 +117,159 @@ public final class TSDProcessor {
      * @throws Exception if the input string does not follow the <code>.tsd</code> data format
      */
     public void processString(String tsdString) throws Exception {
-        AtomicInteger currentLine = new AtomicInteger(0);
+        processString(tsdString, ProgressListener.NONE);
+    }
+
+    /**
+     * Processes the data as {@link #processString(String)} does, telling the listener how many characters have been
+     * processed as it goes.
+     */
+    public void processString(String tsdString, ProgressListener listener) throws Exception {
+        processReader(new ProgressReader(new StringReader(tsdString), tsdString.length(), null, listener));
+    }
+
+    /**
+     * Processes the data read from a byte stream encoded in UTF-8.
+     *
+     * @param tsdStream the input data
+     * @throws Exception if the input does not follow the <code>.tsd</code> data format
+     * @see #processReader(Reader)
+     */
+    public void processStream(InputStream tsdStream) throws Exception {
+        processReader(new InputStreamReader(tsdStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Processes the data in a <code>.tsd</code> file by decoding it directly from a memory mapping of the file, so the
+     * file's contents are never held on the heap as text.
+     *
+     * @param tsdFilePath the path of the data file
+     * @throws Exception if the file cannot be read or does not follow the <code>.tsd</code> data format
+     * @see MappedFileReader
+     */
+    public void processFile(Path tsdFilePath) throws Exception {
+        processFile(tsdFilePath, ProgressListener.NONE);
+    }
+
+    /**
+     * Processes the data in a <code>.tsd</code> file as {@link #processFile(Path)} does, telling the listener how many
+     * bytes of the file have been processed as it goes.
+     */
+    public void processFile(Path tsdFilePath, ProgressListener listener) throws Exception {
+        try (MappedFileReader tsdReader = new MappedFileReader(tsdFilePath)) {
+            processReader(new ProgressReader(tsdReader, tsdReader.size(), tsdReader::position, listener));
+        }
+    }
+
+    /**
+     * Processes the data as it is read, one chunk at a time, and populates two {@link Map} objects with the data. The
+     * input is never held in memory as a whole. As with {@link #processString(String)}, every line is processed even
+     * after an error, and {@link #lineOfError} is the line of the last error, except for a name given twice: the names
+     * are checked against those read so far as each line is read, and the first name given twice stops the processing
+     * right away, with {@link #lineOfError} at its line.
+     *
+     * @param tsdReader the input data
+     * @throws DuplicateNameException on the first name given twice
+     * @throws Exception if the input does not follow the <code>.tsd</code> data format
+     */
+    public void processReader(Reader tsdReader) throws Exception {
+        int       currentLine = 0;
+        NameIndex names       = new NameIndex(); // the line of each name read so far, in a flat open-addressing table
         lineOfError = new AtomicInteger(0);
         numOfInstances = 0;
-        pointNames.clear();
         clear();
-        AtomicBoolean hadAnError   = new AtomicBoolean(false);
         StringBuilder errorMessage = new StringBuilder();
-        Stream.of(tsdString.split("\n"))
-              .map(line -> Arrays.asList(line.split("\t")))
-              .forEach(list -> {
-                  try {
-                      currentLine.getAndIncrement();
-                      numOfInstances++;
-                      if(list.get(1).equals("")) { throw new Exception("invalid label name"); }
-                      String   name  = checkedname(list.get(0));
-                      String   label = list.get(1);
-                      String[] pair  = list.get(2).split(",");
-                      Point2D  point = new Point2D(Double.parseDouble(pair[0]), Double.parseDouble(pair[1]));
-                      dataLabels.put(name, label);
-                      dataPoints.put(name, point);
-                      pointNames.add(name);
-                  } catch (Exception e) {
-                      lineOfError.set(currentLine.get());
-                      errorMessage.setLength(0);
-                      errorMessage.append(e.getClass().getSimpleName()).append(": ").append(e.getMessage());
-                      hadAnError.set(true);
-                  }
-              });
+        TSDTokenizer  tokenizer    = new TSDTokenizer(tsdReader);
+        while (tokenizer.nextLine()) {
+            try {
+                currentLine++;
+                numOfInstances++;
+                tokenizer.tokenize();
+                if(!tokenizer.hasLabel()) { throw new Exception("invalid label name"); }
+                String  name  = checkedname(tokenizer.name());
+                if(!tokenizer.hasLocation()) { throw new Exception("invalid location"); }
+                String  label = tokenizer.label();
+                Point2D point = new Point2D(tokenizer.x(), tokenizer.y());
+                int     first = names.putIfAbsent(name, currentLine); // only a line that parsed holds its name
+                if (first != NameIndex.ABSENT) { throw new DuplicateNameException(name, currentLine, first); }
+                dataLabels.put(name, label);
+                dataPoints.put(name, point);
+                statistics.add(label, point.getX(), point.getY());
+            } catch (DuplicateNameException e) {
+                lineOfError.set(currentLine);
+                throw e;
+            } catch (Exception e) {
+                lineOfError.set(currentLine);
+                errorMessage.setLength(0);
+                errorMessage.append(e.getClass().getSimpleName()).append(": ").append(e.getMessage());
+            }
+        }
         if (errorMessage.length() > 0)
             throw new Exception(errorMessage.toString());
     }
 
     /**
-     * Exports the data to the specified 2-D chart.
+     * Exports the data to the specified 2-D chart, one series per label, in a single pass over the data. A
+     * {@link CanvasScatterChart} is handed the coordinates as arrays, with no chart node per point. Any other chart gets
+     * a node per point, so when there are more points than the chart can show apart, the points are thinned out by a
+     * {@link PointDownsampler} first.
      *
      * @param chart the specified chart
      */
     void toChartData(XYChart<Number, Number> chart) {
-        orderedPointNames = new ArrayList<>();
-        Set<String> labels = new HashSet<>(dataLabels.values());
+        int                  n          = dataLabels.size();
+        double[]             xs         = new double[n];
+        double[]             ys         = new double[n];
+        int[]                labelIds   = new int[n];
+        String[]             names      = new String[n];
+        List<String>         labels     = new ArrayList<>();
+        Map<String, Integer> labelIndex = new HashMap<>();
+        int                  i          = 0;
+        for (Map.Entry<String, String> entry : dataLabels.entrySet()) {
+            Point2D point = dataPoints.get(entry.getKey());
+            Integer id    = labelIndex.get(entry.getValue());
+            if (id == null) {
+                id = labels.size();
+                labels.add(entry.getValue());
+                labelIndex.put(entry.getValue(), id);
+            }
+            xs[i] = point.getX();
+            ys[i] = point.getY();
+            labelIds[i] = id;
+            names[i] = entry.getKey();
+            i++;
+        }
+        chartXs = xs;
+        chartYs = ys;
+        chartNames = names;
+
+        if (chart instanceof CanvasScatterChart) {
+            ((CanvasScatterChart) chart).plot(labels, xs, ys, labelIds, n);
+            return;
+        }
+
+        DataStatistics.Summary bounds   = getStatistics().getSummary(); // no pass over the points to find them
+        int[]                  shownIds = downsampler.downsample(xs, ys, labelIds, n, labels.size(),
+                                                                 bounds.getMinX(), bounds.getMaxX(),
+                                                                 bounds.getMinY(), bounds.getMaxY(),
+                                                                 PointDownsampler.plotWidth(chart),
+                                                                 PointDownsampler.plotHeight(chart));
+        List<XYChart.Series<Number, Number>> series = new ArrayList<>(labels.size());
         for (String label : labels) {
-            XYChart.Series<Number, Number> series = new XYChart.Series<>();
-            series.setName(label);
-            dataLabels.entrySet().stream().filter(entry -> entry.getValue().equals(label)).forEach(entry -> {
-                Point2D point = dataPoints.get(entry.getKey());
-                orderedPointNames.add(entry.getKey());
-                series.getData().add(new XYChart.Data<>(point.getX(), point.getY()));
-            });
-            chart.getData().add(series);
+            XYChart.Series<Number, Number> labelSeries = new XYChart.Series<>();
+            labelSeries.setName(label);
+            series.add(labelSeries);
         }
+        for (i = 0; i < n; i++)
+            if (shownIds[i] >= 0)
+                series.get(shownIds[i]).getData().add(new XYChart.Data<>(xs[i], ys[i]));
+        chart.getData().addAll(series);
     }
 
     void clear() {
         dataPoints.clear();
         dataLabels.clear();
+        statistics.clear();
     }
 
     private String checkedname(String name) throws InvalidDataNameException {
@@ -119,18 +278,41 @@ public final class TSDProcessor {
         return name;
     }
 
-    /* called from toChartData */
+    /* called from TSDLoadTask once the data is processed; the labels are read off the statistics, in order */
     public void generateLabelInfo(){
-        Set<String> set = new HashSet<>();
         distinctLabels  = new LinkedList<>();
         numOfDistinctLabels = 0;
 
-        dataLabels.forEach((x,y) -> {
-            if(set.add(y) && !y.equalsIgnoreCase("null")) {
-                distinctLabels.add(y);
+        for (String label : getStatistics().getLabels()) {
+            if(!label.equalsIgnoreCase("null")) {
+                distinctLabels.add(label);
                 numOfDistinctLabels ++;
             }
-        });
+        }
     }
 
+    /* reports the position of the input to a listener after every chunk read through it */
+    private static final class ProgressReader extends FilterReader {
+
+        private final long             total;
+        private final LongSupplier     position; // or null, for the number of characters read through this reader
+        private final ProgressListener listener;
+        private long                   read;
+
+        private ProgressReader(Reader in, long total, LongSupplier position, ProgressListener listener) {
+            super(in);
+            this.total = total;
+            this.position = position;
+            this.listener = listener;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int count = super.read(cbuf, off, len);
+            if (count > 0)
+                read += count;
+            listener.progress(position == null ? read : position.getAsLong(), total);
+            return count;
+        }
+    }
 }
@@ -0,0 +1,226 @@
+package dataprocessors;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A streaming tokenizer for the tab-separated data format. The input is read in fixed-size chunks into a single
+ * character buffer, and each line is split into its name, label and location fields by recording offsets into that
+ * buffer, so no intermediate line or field {@link String}s are created. Only the name and label of a valid line are
+ * ever copied out of the buffer.
+ * <p>
+ * Lines are reported exactly the way <code>tsdString.split("\n")</code> would report them: empty lines in the middle
+ * of the data are still lines (and will fail to tokenize), trailing empty lines are dropped, and an entirely empty
+ * input is a single empty line. Both <code>\n</code> and <code>\r\n</code> end a line, as they do for a
+ * {@link java.util.Scanner} reading the same file.
+ *
+ * @see TSDProcessor#processReader(Reader)
+ */
+final class TSDTokenizer {
+
+    private static final int    DEFAULT_BUFFER_SIZE = 1 << 16;
+    private static final int    MAX_FAST_DIGITS     = 15; // any 15-digit integer is exactly representable as a double
+    private static final double[] POWERS_OF_TEN     = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8,
+                                                        1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15 };
+
+    private final Reader reader;
+
+    private char[]  buffer;
+    private int     position;        // next unread character in the buffer
+    private int     limit;           // end of valid characters in the buffer
+    private boolean endOfInput;
+    private boolean readAnything;    // whether the input contained at least one character
+    private int     pendingEmptyLines;
+
+    /* offsets of the current line and its fields */
+    private int lineStart;
+    private int lineEnd;
+    private int nameEnd;
+    private int labelStart, labelEnd;
+    private int locationStart, locationEnd;
+
+    /* the last label copied out of the buffer, reused while consecutive lines share it */
+    private String lastLabel;
+
+    TSDTokenizer(Reader reader) { this(reader, DEFAULT_BUFFER_SIZE); }
+
+    TSDTokenizer(Reader reader, int bufferSize) {
+        this.reader = reader;
+        this.buffer = new char[Math.max(bufferSize, 16)];
+    }
+
+    /**
+     * Advances to the next line of the input.
+     *
+     * @return <code>false</code> if there are no more lines
+     * @throws IOException if the underlying reader fails
+     */
+    boolean nextLine() throws IOException {
+        if (pendingEmptyLines > 0) {
+            pendingEmptyLines--;
+            lineStart = lineEnd = position;
+            return true;
+        }
+        int emptyLines = 0;
+        while (true) {
+            if (peek(0) == '\n')
+                position++;
+            else if (peek(0) == '\r' && peek(1) == '\n')
+                position += 2;
+            else break;
+            emptyLines++;
+        }
+        if (peek(0) < 0) {
+            if (readAnything)
+                return false;
+            readAnything = true; // an empty input is still one (empty) line
+            lineStart = lineEnd = position;
+            return true;
+        }
+        if (emptyLines > 0) {
+            pendingEmptyLines = emptyLines - 1;
+            lineStart = lineEnd = position;
+            return true;
+        }
+        readLine();
+        return true;
+    }
+
+    /**
+     * Splits the current line into its name, label and location fields. Like <code>line.split("\t")</code>, any
+     * fields after the location are ignored.
+     */
+    void tokenize() {
+        nameEnd       = indexOf('\t', lineStart, lineEnd);
+        labelStart    = Math.min(nameEnd + 1, lineEnd);
+        labelEnd      = indexOf('\t', labelStart, lineEnd);
+        locationStart = Math.min(labelEnd + 1, lineEnd);
+        locationEnd   = indexOf('\t', locationStart, lineEnd);
+    }
+
+    boolean hasLabel()    { return labelEnd > labelStart; }
+
+    boolean hasLocation() { return labelEnd < lineEnd && locationEnd > locationStart; }
+
+    String name() { return new String(buffer, lineStart, nameEnd - lineStart); }
+
+    String label() {
+        int length = labelEnd - labelStart;
+        if (lastLabel != null && lastLabel.length() == length) {
+            int i = 0;
+            while (i < length && lastLabel.charAt(i) == buffer[labelStart + i])
+                i++;
+            if (i == length)
+                return lastLabel;
+        }
+        lastLabel = new String(buffer, labelStart, length);
+        return lastLabel;
+    }
+
+    /**
+     * @return the x-coordinate of the current line's location
+     * @throws NumberFormatException if it is not a number
+     */
+    double x() {
+        return parseDouble(locationStart, coordinateEnd(locationStart));
+    }
+
+    /**
+     * @return the y-coordinate of the current line's location; anything after a second comma is ignored
+     * @throws NumberFormatException if it is not a number
+     * @throws IndexOutOfBoundsException if the location has no y-coordinate
+     */
+    double y() {
+        int xEnd = coordinateEnd(locationStart);
+        if (xEnd == locationEnd)
+            throw new IndexOutOfBoundsException("missing y-coordinate");
+        return parseDouble(xEnd + 1, coordinateEnd(xEnd + 1));
+    }
+
+    private int coordinateEnd(int from) { return indexOf(',', from, locationEnd); }
+
+    private int indexOf(char c, int from, int to) {
+        int i = from;
+        while (i < to && buffer[i] != c)
+            i++;
+        return i;
+    }
+
+    /**
+     * Parses plain decimal numbers of up to 15 digits directly from the buffer. Since both the digits and the power of
+     * ten are exact doubles, the single division is correctly rounded and agrees with {@link Double#parseDouble}.
+     * Anything else (exponents, whitespace, longer numbers, ...) falls back to {@link Double#parseDouble}.
+     */
+    private double parseDouble(int from, int to) {
+        int     i        = from;
+        boolean negative = false;
+        if (i < to && (buffer[i] == '-' || buffer[i] == '+'))
+            negative = buffer[i++] == '-';
+        long mantissa       = 0;
+        int  digits         = 0;
+        int  fractionDigits = -1;
+        for (; i < to; i++) {
+            char c = buffer[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fractionDigits >= 0)
+                    fractionDigits++;
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else break;
+        }
+        if (i != to || digits == 0 || digits > MAX_FAST_DIGITS)
+            return Double.parseDouble(new String(buffer, from, to - from));
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    /* reads up to the next line break, keeping the whole line contiguous in the buffer */
+    private void readLine() throws IOException {
+        int scanned = position;
+        while (true) {
+            while (scanned < limit && buffer[scanned] != '\n')
+                scanned++;
+            if (scanned < limit || endOfInput)
+                break;
+            int offset = position;
+            fill();
+            scanned -= offset - position;
+        }
+        lineStart = position;
+        lineEnd = scanned > position && scanned < limit && buffer[scanned - 1] == '\r' ? scanned - 1 : scanned;
+        position = scanned < limit ? scanned + 1 : scanned;
+    }
+
+    /* the character the given distance past the next unread one, or -1 at the end of the input */
+    private int peek(int ahead) throws IOException {
+        while (limit - position <= ahead) {
+            if (endOfInput)
+                return -1;
+            fill();
+        }
+        return buffer[position + ahead];
+    }
+
+    /* moves the unread characters to the front of the buffer, growing it if it is full, and reads more input */
+    private void fill() throws IOException {
+        int unread = limit - position;
+        if (unread == buffer.length) {
+            char[] grown = new char[buffer.length * 2];
+            System.arraycopy(buffer, position, grown, 0, unread);
+            buffer = grown;
+        } else if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, unread);
+        }
+        position = 0;
+        limit = unread;
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0)
+            endOfInput = true;
+        else {
+            limit += read;
+            readAnything |= read > 0;
+        }
+    }
+}
@@ -37,6 +37,8 @@ public enum AppPropertyTypes {
 
     /* application-specific messages */
     SAVE_UNSAVED_WORK,
+    LOAD_PROGRESS_BYTES,
+    LOAD_PROGRESS_CHARACTERS,
 
     /* application-specific parameters */
     DATA_FILE_EXT,
@@ -56,11 +58,14 @@ public enum AppPropertyTypes {
     DONE_BUTTON,
     EDIT_BUTTON,
     NEXT_INTERVAL_BUTTON,
+    CANCEL_BUTTON,
+    SWEEP_BUTTON,
 
     /* application-specific label */
     CLUSTERING_LABEL,
     CLASSIFICATION_LABEL,
     ALGORITHM_TYPE_LABEL,
+    SWEEP_RESULTS_LABEL,
 
     /* application-specific meta-data message */
     INSTANCES_MESSAGE,
@@ -78,15 +83,28 @@ public enum AppPropertyTypes {
     SAVE_BUTTON,
     DEFAULT_ITERATIONS_VAL,
     DEFAULT_INTERVAL_VAL,
+    MIN_CLUSTERS_VAL,
+    MAX_CLUSTERS_VAL,
 
     /* application-specific series names */
     CLASSIFIER_SERIES,
 
+    /* application-specific display parameters */
+    UPDATE_FRAME_RATE,
+    CHART_RENDERER,
+    CANVAS_CHART_RENDERER,
+
     /* clustering algorithm names */
     CLUST_ALGORITHM_1_LOCATION,
     CLUST_ALGORITHM_2_LOCATION,
 
+    /* clustering sweep */
+    SWEEP_MAX_CLUSTERS,
+    SWEEP_SEEDS,
+    SWEEP_MAX_ITERATIONS,
+
     /* classification algorithm names */
     CLASS_ALGORITHM_1_LOCATION,
+    CLASS_ALGORITHM_2_LOCATION,
 
     }
@@ -4,10 +4,14 @@ import actions.AppActions;
 
 import algorithms.*;
 import dataprocessors.AppData;
+import dataprocessors.DataStatistics;
+import dataprocessors.TSDProcessor;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Point2D;
 import javafx.geometry.Pos;
-import javafx.scene.Cursor;
 import javafx.scene.Node;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
@@ -31,6 +35,7 @@ import vilij.templates.UITemplate;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static vilij.settings.PropertyTypes.GUI_RESOURCE_PATH;
 import static vilij.settings.PropertyTypes.ICONS_RESOURCE_PATH;
@@ -48,6 +53,7 @@ public final class AppUI extends UITemplate {
     @SuppressWarnings("FieldCanBeLocal")
     private Button                     scrnshotButton; // toolbar button to take a screenshot of the data
     private LineChart<Number, Number>  chart;          // the chart where data will be displayed
+    private ChartHoverHandler          chartHoverHandler; // shows the name of the point under the mouse
     private TextArea                   textArea;       // text area for new data input
     private boolean                    hasNewText;     // whether or not the text area has any new data since last display
 
@@ -68,24 +74,35 @@ public final class AppUI extends UITemplate {
     /** Classification Algorithm UI */
     private VBox                       classificationAlgOptionPane;
     private RadioButton                randomClassificationBtn;
+    private RadioButton                classifAlg2Btn;
 
     /** Clustering Algorithm UI */
     private VBox                       clusteringAlgOptionPane;
     private RadioButton                clustAlg1Btn;
     private RadioButton                clustAlg2Btn;
     private boolean                    algorithm2IsSelected;
+    private Button                     sweepButton;
+
+    /** Clustering Sweep UI */
+    private VBox                       sweepResultsPane;         // the results of the latest sweep, best first
 
     /** Algorithms */
     private Algorithm                  classifAlgorithm1;
+    private Algorithm                  classifAlgorithm2;
     private Algorithm                  clustAlgorithm1;
     private Algorithm                  clustAlgorithm2;
-    private Thread                     algorithmThread;
+    private final AlgorithmExecutor    algorithmExecutor = new AlgorithmExecutor(1, 1);
+    private AlgorithmExecutor.Run      algorithmRun;             // the latest run, which may be done
 
     /** Edit/Done UI */
     private ToggleButton               doneDataToggle;
 
+    /** Data Loading UI */
+    private VBox                       loadProgressPane;         // shown while data is loaded in the background
+
     /** Algoirthm Configuration Objects */
     private ClassificationConfigUI     randClassificationConfigUI;
+    private ClassificationConfigUI     classifAlgorithm2ConfigUI;
     private ClusteringConfigUI         randClusteringConfigUI;
     private ClusteringConfigUI         algorithm1ConfigUI;
 
@@ -105,7 +122,7 @@ public final class AppUI extends UITemplate {
     public Button                    getRunButton()      { return runButton; }
     public Button                    getNextIntervalBtn(){ return nextIntervalButton; }
     public TextArea                  getTextArea()       { return textArea; }
-    public Thread                    getAlgorithmThread(){ return algorithmThread; }
+    public AlgorithmExecutor.Run     getAlgorithmRun()   { return algorithmRun; }
 
     public AppUI(Stage primaryStage, ApplicationTemplate applicationTemplate) {
         super(primaryStage, applicationTemplate);
@@ -157,6 +174,7 @@ public final class AppUI extends UITemplate {
         setWorkspaceActions();
         runButton = new Button(applicationTemplate.manager.getPropertyValue(AppPropertyTypes.RUN_BUTTON.name()));
         randClassificationConfigUI = new ClassificationConfigUI(applicationTemplate);
+        classifAlgorithm2ConfigUI  = new ClassificationConfigUI(applicationTemplate);
         randClusteringConfigUI = new ClusteringConfigUI(applicationTemplate);
         algorithm1ConfigUI     = new ClusteringConfigUI(applicationTemplate);
         initializeAlgorithmTypeOptions();
@@ -165,7 +183,9 @@ public final class AppUI extends UITemplate {
     @Override
     public void clear() {
         ((AppActions) applicationTemplate.getActionComponent()).setWasLoadedProperty(false);
+        cancelAlgorithm();
         chart.getData().clear();
+        chartHoverHandler.clear();
     }
 
     public String getCurrentText() { return textArea.getText(); }
@@ -176,12 +196,14 @@ public final class AppUI extends UITemplate {
         NumberAxis      yAxis   = new NumberAxis();
         yAxis.setForceZeroInRange(false);
         xAxis.setForceZeroInRange(false);
-        chart = new LineChart<>(xAxis, yAxis);
+        chart = isCanvasChartRenderer() ? new CanvasScatterChart(xAxis, yAxis) : new LineChart<>(xAxis, yAxis);
         chart.setTitle(manager.getPropertyValue(AppPropertyTypes.CHART_TITLE.name()));
         applicationTemplate.getUIComponent().getPrimaryScene().getStylesheets().add(cssPath);
         chart.setVerticalGridLinesVisible(false);
         chart.setHorizontalGridLinesVisible(false);
         chart.setAnimated(false);
+        SeriesPalette.install(chart, Integer.parseInt(manager.getPropertyValue(AppPropertyTypes.MAX_CLUSTERS_VAL.name())));
+        chartHoverHandler = new ChartHoverHandler(chart);
 
         leftPanel = new VBox(8);
         leftPanel.setAlignment(Pos.TOP_CENTER);
@@ -220,6 +242,13 @@ public final class AppUI extends UITemplate {
         VBox.setVgrow(appPane, Priority.ALWAYS);
     }
 
+    /* whether the data points are drawn on a canvas, rather than as one node each */
+    private boolean isCanvasChartRenderer() {
+        PropertyManager manager = applicationTemplate.manager;
+        return manager.getPropertyValue(AppPropertyTypes.CHART_RENDERER.name())
+                      .equalsIgnoreCase(manager.getPropertyValue(AppPropertyTypes.CANVAS_CHART_RENDERER.name()));
+    }
+
     private void setWorkspaceActions() {
         setTextAreaActions();
         setScrnshotButtonActions();
@@ -267,40 +296,10 @@ public final class AppUI extends UITemplate {
         });
     }
 
-    /* called from loadData(String dataString)*/
-    public void checkForDuplicates(){
-        AppData dataComponent = (AppData) applicationTemplate.getDataComponent();
-        ArrayList<String> pointNames = dataComponent.getTSDProcessor().pointNames;
-        Set<String> set = new HashSet<>();
-        set.clear();
-
-        for(String pointName : pointNames){
-            if(!set.add(pointName))    { duplicate = pointName; duplicateFound = true; break; }
-            else                       { duplicateFound = false; }
-        }
-    }
-
+    /* the names of the points are shown by a single hover handler for the whole chart */
     private void setChartToolTips() {
-        ArrayList<String> orderedPointNames = ((AppData) applicationTemplate.getDataComponent()).getTSDProcessor().orderedPointNames;
-        int totalSeries     = chart.getData().size();
-        int totalSeriesPoints;
-        int series;
-        int points;
-        int iterator = 0;
-
-        for(series = 0; series < totalSeries; series++){
-            totalSeriesPoints = chart.getData().get(series).getData().size();
-
-            for(points = 0; points < totalSeriesPoints; points++)
-                try {
-
-                    Node chartSymbol = chart.getData().get(series).getData().get(points).getNode();
-                    Tooltip tooltip = new Tooltip(orderedPointNames.get(iterator++));
-                    Tooltip.install(chartSymbol, tooltip);
-                    chartSymbol.setCursor(Cursor.HAND);
-
-                } catch (IndexOutOfBoundsException ignored) {}
-        }
+        TSDProcessor processor = ((AppData) applicationTemplate.getDataComponent()).getTSDProcessor();
+        chartHoverHandler.setPoints(processor.getChartXs(), processor.getChartYs(), processor.getChartNames());
     }
 
     private void setDisplayActions() {
@@ -336,6 +335,7 @@ public final class AppUI extends UITemplate {
         hideClassificationAlgorithmOption();
         hideClusteringAlgorithmOption();
         hideRunButton();
+        hideSweepResults();
     }
 
 
@@ -466,13 +466,42 @@ public final class AppUI extends UITemplate {
                 PropertyManager manager = applicationTemplate.manager;
                 String textAreaLoadName = manager.getPropertyValue(AppPropertyTypes.TEXT_AREA_LOADNAME.name());
                 ((AppActions) applicationTemplate.getActionComponent()).setLoadedFileName(textAreaLoadName);
-                ((AppData) applicationTemplate.getDataComponent()).loadData(textArea.getText());
+                AppData      dataComponent = (AppData) applicationTemplate.getDataComponent();
+                ToggleButton toggle        = doneDataToggle;
+                toggle.setDisable(true); // until the data is loaded in the background
+                dataComponent.loadData(textArea.getText(), () -> {
+                    toggle.setDisable(false);
+                    boolean dataIsValid = dataComponent.getDataIsValid();
+
+                    if   (duplicateFound) { toggle.fire(); }
+                    else if(!dataIsValid) { toggle.fire(); }
+                });
+            }
 
-                boolean dataIsValid = ((AppData) applicationTemplate.getDataComponent()).getDataIsValid();
+    /** Data Loading Progress UI */
+    /* called from AppData when a load is started; the progress and the amounts read are those of the load */
+    public void showLoadProgress(Task<?> load) {
+        PropertyManager manager = applicationTemplate.manager;
+        hideLoadProgress();
 
-                if   (duplicateFound) { doneDataToggle.fire(); }
-                else if(!dataIsValid) { doneDataToggle.fire(); }
-            }
+        ProgressBar progressBar   = new ProgressBar();
+        Label       progressLbl   = new Label();
+        Button      cancelLoadBtn = new Button(manager.getPropertyValue(AppPropertyTypes.CANCEL_BUTTON.name()));
+        progressBar.setMaxWidth(Double.MAX_VALUE);
+        progressBar.progressProperty().bind(load.progressProperty());
+        progressLbl.textProperty().bind(load.messageProperty());
+        cancelLoadBtn.setOnAction(event -> ((AppData) applicationTemplate.getDataComponent()).cancelLoading());
+
+        HBox progressBox = new HBox(10, progressLbl, cancelLoadBtn);
+        progressBox.setAlignment(Pos.CENTER_LEFT);
+        loadProgressPane = new VBox(5, progressBar, progressBox);
+        leftPanel.getChildren().add(loadProgressPane);
+    }
+
+    /* called from AppData once a load is done */
+    public void hideLoadProgress() {
+        leftPanel.getChildren().remove(loadProgressPane);
+    }
 
     /* called from showDoneOption and load data button */
     private void hideDoneOption() {
@@ -486,32 +515,54 @@ public final class AppUI extends UITemplate {
         Label classificationAlgorithmLbl = new Label(manager.getPropertyValue(AppPropertyTypes.CLASSIFICATION_LABEL.name()));
         classificationAlgOptionPane = new VBox();
         randomClassificationBtn     = new RadioButton(getClassifAlg1Name());
+        classifAlg2Btn              = new RadioButton(getClassifAlg2Name());
 
         randomClassificationBtn.setMinHeight(35);
+        classifAlg2Btn.setMinHeight(35);
 
         Button classificationConfigBtn = setConfigurationButton();
+        Button classifAlg2ConfigBtn    = setConfigurationButton();
 
         HBox algorithmOption = new HBox();
         algorithmOption.setSpacing(10);
         algorithmOption.setPadding(new Insets(10));
         algorithmOption.getChildren().addAll(randomClassificationBtn, classificationConfigBtn);
 
+        HBox algorithm2Option = new HBox();
+        algorithm2Option.setSpacing(10);
+        algorithm2Option.setPadding(new Insets(10));
+        algorithm2Option.getChildren().addAll(classifAlg2Btn, classifAlg2ConfigBtn);
+
         randomClassificationBtn.setOnAction(event -> setRandomClassificationBtnActions());
         classificationConfigBtn.setOnAction(event -> showClassificationConfigUI());
 
-        classificationAlgOptionPane.getChildren().addAll(classificationAlgorithmLbl, algorithmOption);
+        classifAlg2Btn.setOnAction(event -> setClassifAlg2BtnActions());
+        classifAlg2ConfigBtn.setOnAction(event -> showClassifAlg2ConfigUI());
+
+        classificationAlgOptionPane.getChildren().addAll(classificationAlgorithmLbl, algorithmOption, algorithm2Option);
         classificationAlgOptionPane.setAlignment(Pos.BASELINE_LEFT);
 
         leftPanel.getChildren().addAll(classificationAlgOptionPane);
     }
             private void setRandomClassificationBtnActions(){
-                if(randomClassificationBtn.isSelected()) {  algorithm2IsSelected = false;
+                if(randomClassificationBtn.isSelected()) {  classifAlg2Btn.setSelected(false);
+                                                            algorithm2IsSelected = false;
                                                             showRunButton(); }
                 else { hideRunButton(); }
                 if(!randClassificationConfigUI.configurationIsSet.get()) { runButton.setDisable(true); }
                 else { runButton.setDisable(false); } // if configuration has been set then enable run option
             }
 
+            private void setClassifAlg2BtnActions(){
+                if(classifAlg2Btn.isSelected()) { algorithm2IsSelected = true;
+                                                  randomClassificationBtn.setSelected(false);
+                                                  showRunButton(); }
+                else { hideRunButton();
+                       algorithm2IsSelected = false; }
+                if(!classifAlgorithm2ConfigUI.configurationIsSet.get()) { runButton.setDisable(true); }
+                else { runButton.setDisable(false); } // if configuration has been set then enable run option
+            }
+
     private void hideClassificationAlgorithmOption() {
         leftPanel.getChildren().remove(classificationAlgOptionPane);
     }
@@ -545,7 +596,11 @@ public final class AppUI extends UITemplate {
         clustAlg2Btn.setOnAction(event -> setAlgorithm1BtnActions());
         algorithm1ConfigBtn.setOnAction(event -> showAlgorithm1ConfigUI());
 
-        clusteringAlgOptionPane.getChildren().addAll(clusteringAlgorithmLbl, randomClustererOptionPane, algorithm1OptionPane);
+        sweepButton = new Button(manager.getPropertyValue(AppPropertyTypes.SWEEP_BUTTON.name()));
+        sweepButton.setOnAction(event -> setSweepActions());
+
+        clusteringAlgOptionPane.getChildren().addAll(clusteringAlgorithmLbl, randomClustererOptionPane, algorithm1OptionPane,
+                                                     sweepButton);
         clusteringAlgOptionPane.setAlignment(Pos.BASELINE_LEFT);
 
         leftPanel.getChildren().addAll(clusteringAlgOptionPane);
@@ -571,6 +626,66 @@ public final class AppUI extends UITemplate {
 
     private void hideClusteringAlgorithmOption() {
         leftPanel.getChildren().remove(clusteringAlgOptionPane);
+        hideSweepResults();
+    }
+
+    /** Clustering Sweep UI */
+    /* runs both clustering algorithms over a grid of numbers of clusters and seeds, in place of any other run */
+    private void setSweepActions() {
+        PropertyManager manager = applicationTemplate.manager;
+        DataSet dataSet         = ((AppActions) applicationTemplate.getActionComponent()).getLoadedDataSet();
+        int     maxIterations   = Integer.parseInt(manager.getPropertyValue(AppPropertyTypes.SWEEP_MAX_ITERATIONS.name()));
+        int     minClusters     = Integer.parseInt(manager.getPropertyValue(AppPropertyTypes.MIN_CLUSTERS_VAL.name()));
+        int     maxClusters     = Math.min(Integer.parseInt(manager.getPropertyValue(AppPropertyTypes.SWEEP_MAX_CLUSTERS.name())),
+                                           dataSet.size());
+        int     numOfSeeds      = Integer.parseInt(manager.getPropertyValue(AppPropertyTypes.SWEEP_SEEDS.name()));
+        List<String> algorithmClassPaths = Arrays.asList(
+                manager.getPropertyValue(AppPropertyTypes.CLUST_ALGORITHM_1_LOCATION.name()),
+                manager.getPropertyValue(AppPropertyTypes.CLUST_ALGORITHM_2_LOCATION.name()));
+        List<Long>   seeds               = new ArrayList<>();
+        for (long seed = 1; seed <= numOfSeeds; seed++) { seeds.add(seed); }
+        if (maxClusters < minClusters) { return; } // too few instances to compare any clusters
+
+        ClusteringSweep sweep = new ClusteringSweep(dataSet, maxIterations);
+        Algorithm       sweepAlgorithm = sweep.asAlgorithm(
+                ClusteringSweep.grid(algorithmClassPaths, minClusters, maxClusters, seeds),
+                Runtime.getRuntime().availableProcessors(),
+                results -> Platform.runLater(() -> showSweepResults(results)));
+
+        hideRunButton();
+        hideSweepResults();
+        clustAlg1Btn.setSelected(false);
+        clustAlg2Btn.setSelected(false);
+        sweepButton.setDisable(true);
+        disableToolbar();
+        runAlgorithm(sweepAlgorithm);
+        algorithmRun.completion().whenComplete((result, e) -> Platform.runLater(() -> {
+            sweepButton.setDisable(false);
+            enableToolbar();
+        }));
+    }
+
+    /* lists the results by their scores, best first, and shows the selected one in the chart, starting with the best */
+    private void showSweepResults(List<ClusteringSweep.Result> results) {
+        PropertyManager manager = applicationTemplate.manager;
+        hideSweepResults();
+
+        List<ClusteringSweep.Result> ranked = new ArrayList<>(results);
+        ranked.sort(Comparator.comparingDouble(ClusteringSweep.Result::getSilhouette).reversed());
+        ListView<ClusteringSweep.Result> resultsList = new ListView<>(FXCollections.observableArrayList(ranked));
+        resultsList.setPrefHeight(150);
+        resultsList.getSelectionModel().selectedItemProperty().addListener((observable, oldResult, newResult) -> {
+            if (newResult != null) { newResult.showIn(chart); }
+        });
+        resultsList.getSelectionModel().select(ClusteringSweep.best(results));
+
+        Label sweepResultsLbl = new Label(manager.getPropertyValue(AppPropertyTypes.SWEEP_RESULTS_LABEL.name()));
+        sweepResultsPane = new VBox(5, sweepResultsLbl, resultsList);
+        leftPanel.getChildren().add(sweepResultsPane);
+    }
+
+    private void hideSweepResults() {
+        leftPanel.getChildren().remove(sweepResultsPane);
     }
 
     /* called from showClassificationAlgorithmOption() and showClusteringAlgorithmOption() */
@@ -591,6 +706,11 @@ public final class AppUI extends UITemplate {
         randClassificationConfigUI.show();
     }
 
+    private void showClassifAlg2ConfigUI(){
+        classifAlgorithm2ConfigUI.init(applicationTemplate.getUIComponent().getPrimaryWindow());
+        classifAlgorithm2ConfigUI.show();
+    }
+
     private void showClusteringConfigUI(){
         randClusteringConfigUI.init(applicationTemplate.getUIComponent().getPrimaryWindow());
         randClusteringConfigUI.show();
@@ -611,7 +731,8 @@ public final class AppUI extends UITemplate {
         runButtonPane.setAlignment(Pos.BOTTOM_LEFT);
 
         if(algorithm2IsSelected) {
-            runButton.setOnAction(event -> setRunClustAlg2Actions());
+            if (classificationIsSelected) { runButton.setOnAction(event -> setRunClassifAlg2Actions()); }
+            else                          { runButton.setOnAction(event -> setRunClustAlg2Actions()); }
         } else {
 
             if (classificationIsSelected) {
@@ -629,7 +750,7 @@ public final class AppUI extends UITemplate {
 
     private void setRunClassifAlg1Actions() {
         PropertyManager manager = applicationTemplate.manager;
-        DataSet dataSet        = new DataSet();
+        DataSet dataSet        = ((AppActions) applicationTemplate.getActionComponent()).getLoadedDataSet();
         int     maxIterations  = randClassificationConfigUI.maxIterations;
         int     updateInterval = randClassificationConfigUI.updateInterval;
         boolean continuousRun  = randClassificationConfigUI.continuousRun;
@@ -648,10 +769,35 @@ public final class AppUI extends UITemplate {
             e.printStackTrace();
         }
 
-        algorithmThread = new Thread(classifAlgorithm1);
         runButton.setDisable(true);
         displayToChart();
-        algorithmThread.start();
+        runAlgorithm(classifAlgorithm1);
+    }
+
+    private void setRunClassifAlg2Actions() {
+        PropertyManager manager = applicationTemplate.manager;
+        DataSet dataSet        = ((AppActions) applicationTemplate.getActionComponent()).getLoadedDataSet();
+        int     maxIterations  = classifAlgorithm2ConfigUI.maxIterations;
+        int     updateInterval = classifAlgorithm2ConfigUI.updateInterval;
+        boolean continuousRun  = classifAlgorithm2ConfigUI.continuousRun;
+        String  algorithmClassPath = manager.getPropertyValue(AppPropertyTypes.CLASS_ALGORITHM_2_LOCATION.name()); // algorithm class path
+
+        classifAlgorithm2 = null;
+
+        try {
+
+            classifAlgorithm2 = (Algorithm) Class.forName(algorithmClassPath)
+                    .getConstructor(DataSet.class, int.class, int.class, boolean.class, ApplicationTemplate.class)
+                    .newInstance(dataSet, maxIterations, updateInterval, continuousRun, applicationTemplate);
+
+        } catch (ClassNotFoundException | NoSuchMethodException | InstantiationException |
+                IllegalAccessException | InvocationTargetException e) {
+            e.printStackTrace();
+        }
+
+        runButton.setDisable(true);
+        displayToChart();
+        runAlgorithm(classifAlgorithm2);
     }
 
     private void setRunClustAlg1Actions() {
@@ -659,8 +805,8 @@ public final class AppUI extends UITemplate {
         DataSet dataSet         = ((AppActions) applicationTemplate.getActionComponent()).getLoadedDataSet();
         int     maxIterations   = randClusteringConfigUI.maxIterations;
         int     updateInterval  = randClusteringConfigUI.updateInterval;
-        int     numOfLabels     = randClusteringConfigUI.totalDistinctLabels;
         int     numOfInstances  = ((AppActions) applicationTemplate.getActionComponent()).getLoadedDataSet().getLocations().size();
+        int     numOfLabels     = Math.min(randClusteringConfigUI.totalDistinctLabels, numOfInstances);
         boolean continuousRun   = randClusteringConfigUI.continuousRun;
         String  algorithmClassPath = manager.getPropertyValue(AppPropertyTypes.CLUST_ALGORITHM_1_LOCATION.name()); // algorithm class path
 
@@ -677,10 +823,9 @@ public final class AppUI extends UITemplate {
             e.printStackTrace();
         }
 
-        algorithmThread = new Thread(clustAlgorithm1);
         runButton.setDisable(true);
         displayToChart();
-        algorithmThread.start();
+        runAlgorithm(clustAlgorithm1);
     }
 
 
@@ -704,47 +849,43 @@ public final class AppUI extends UITemplate {
         clusteringIsSelected     = true;
     }
 
-    public void displayIntervalIteration(int xCoefficient, int yCoefficient, int constant){
+    /** Shows the data with the classifier's line <code>a x + b y = c</code> across it, in double precision. */
+    public void displayIntervalIteration(ClassifierModel model){
         AppData         dataComponent = ((AppData) applicationTemplate.getDataComponent());
         PropertyManager manager       = applicationTemplate.manager;
 
-        if(yCoefficient == 0) { yCoefficient = 1; } // to avoid dividing by zero
-
-        int     y1         = (constant-xCoefficient*generateXMin()) / yCoefficient;
-        int     y2         = (constant-xCoefficient*generateXMax()) / yCoefficient;
-
         chart.getData().clear();
         dataComponent.displayData();
 
-        XYChart.Series<Number, Number> randomSeries   = new XYChart.Series<>();
-        XYChart.Data algorithmPoint1 = new XYChart.Data<>(generateXMin(), y1);
-        XYChart.Data algorithmPoint2 = new XYChart.Data<>(generateXMax(), y2);
-        randomSeries.getData().addAll(algorithmPoint1, algorithmPoint2);
-        randomSeries.setName(manager.getPropertyValue(AppPropertyTypes.CLASSIFIER_SERIES.name()));
-        chart.getData().add(randomSeries);
-        randomSeries.getNode().setStyle("-fx-stroke-width: 2px");
-        randomSeries.getData().get(0).getNode().setStyle("-fx-background-color: transparent, transparent;");
-        randomSeries.getData().get(1).getNode().setStyle("-fx-background-color: transparent, transparent;");
-    }
-
-    private int generateXMax(){
-        AppData              dataComponent = ((AppData) applicationTemplate.getDataComponent());
-        Map<String, Point2D> dataPoints    = dataComponent.getTSDProcessor().getDataPoints();
-        int                  max           = Integer.MIN_VALUE;
-        for (Map.Entry<String, Point2D> entry : dataPoints.entrySet()) {
-            if(entry.getValue().getX() > max) { max = (int) entry.getValue().getX(); }
+        double a = model.getCoefficient(0);
+        double b = model.getCoefficient(1);
+        double c = model.getCoefficient(2);
+        if (a == 0 && b == 0) { return; } // no line to draw
+
+        DataStatistics.Summary bounds = dataComponent.getTSDProcessor().getStatistics().getSummary();
+        double x1, y1, x2, y2;
+        if (Math.abs(b) >= Math.abs(a)) { // the line spans the data from left to right
+            x1 = bounds.getMinX();
+            x2 = bounds.getMaxX();
+            y1 = (c - a * x1) / b;
+            y2 = (c - a * x2) / b;
+        } else {                          // the line spans the data from bottom to top, even when vertical
+            y1 = bounds.getMinY();
+            y2 = bounds.getMaxY();
+            x1 = (c - b * y1) / a;
+            x2 = (c - b * y2) / a;
         }
-        return max;
-    }
 
-    private int generateXMin(){
-        AppData              dataComponent = ((AppData) applicationTemplate.getDataComponent());
-        Map<String, Point2D> dataPoints    = dataComponent.getTSDProcessor().getDataPoints();
-        int                  min           = Integer.MAX_VALUE;
-        for (Map.Entry<String, Point2D> entry : dataPoints.entrySet()) {
-            if(entry.getValue().getX() < min) { min = (int) entry.getValue().getX(); }
-        }
-        return min;
+        XYChart.Series<Number, Number> classifierSeries = new XYChart.Series<>();
+        XYChart.Data<Number, Number>   algorithmPoint1  = new XYChart.Data<>(x1, y1);
+        XYChart.Data<Number, Number>   algorithmPoint2  = new XYChart.Data<>(x2, y2);
+        classifierSeries.getData().add(algorithmPoint1);
+        classifierSeries.getData().add(algorithmPoint2);
+        classifierSeries.setName(manager.getPropertyValue(AppPropertyTypes.CLASSIFIER_SERIES.name()));
+        chart.getData().add(classifierSeries);
+        classifierSeries.getNode().setStyle("-fx-stroke-width: 2px");
+        algorithmPoint1.getNode().setStyle("-fx-background-color: transparent, transparent;");
+        algorithmPoint2.getNode().setStyle("-fx-background-color: transparent, transparent;");
     }
 
     /** Shows the 'Next Interval' Button */
@@ -756,14 +897,17 @@ public final class AppUI extends UITemplate {
 
         runButtonPane.getChildren().add(nextIntervalButton);
 
-        if(algorithm2IsSelected) { nextIntervalButton.setOnAction(event -> clustAlgorithm2.notifyThread()); }
+        if(algorithm2IsSelected) {
+            if (classificationIsSelected) { nextIntervalButton.setOnAction(event -> classifAlgorithm2.getStepGate().advance(1)); }
+            else                          { nextIntervalButton.setOnAction(event -> clustAlgorithm2.getStepGate().advance(1)); }
+        }
         else {
             if (classificationIsSelected) {
-                nextIntervalButton.setOnAction(event -> classifAlgorithm1.notifyThread());
+                nextIntervalButton.setOnAction(event -> classifAlgorithm1.getStepGate().advance(1));
             }
 
             if (clusteringIsSelected) {
-                nextIntervalButton.setOnAction(event -> clustAlgorithm1.notifyThread());
+                nextIntervalButton.setOnAction(event -> clustAlgorithm1.getStepGate().advance(1));
             }
         }
     }
@@ -780,7 +924,8 @@ public final class AppUI extends UITemplate {
         newButton.setDisable(false);
         loadButton.setDisable(false);
         scrnshotButton.setDisable(false);
-        if(classificationIsSelected) randomClassificationBtn.setDisable(true); // required for 'Next Interval' Button functionality
+        if(classificationIsSelected) { randomClassificationBtn.setDisable(true); // required for 'Next Interval' Button functionality
+                                       classifAlg2Btn.setDisable(true); }
     }
 
     private void setRunClustAlg2Actions(){
@@ -788,8 +933,8 @@ public final class AppUI extends UITemplate {
         DataSet dataSet         = ((AppActions) applicationTemplate.getActionComponent()).getLoadedDataSet();
         int     maxIterations   = algorithm1ConfigUI.maxIterations;
         int     updateInterval  = algorithm1ConfigUI.updateInterval;
-        int     numOfLabels     = algorithm1ConfigUI.totalDistinctLabels;
         int     numOfInstances  = ((AppActions) applicationTemplate.getActionComponent()).getLoadedDataSet().getLocations().size();
+        int     numOfLabels     = Math.min(algorithm1ConfigUI.totalDistinctLabels, numOfInstances);
         boolean continuousRun   = algorithm1ConfigUI.continuousRun;
         String  algorithmClassPath = manager.getPropertyValue(AppPropertyTypes.CLUST_ALGORITHM_2_LOCATION.name()); // algorithm class path
 
@@ -806,15 +951,30 @@ public final class AppUI extends UITemplate {
             e.printStackTrace();
         }
 
-        algorithmThread = new Thread(clustAlgorithm2);
         runButton.setDisable(true);
         displayToChart();
-        algorithmThread.start();
+        runAlgorithm(clustAlgorithm2);
     }
 
-    /** Called from the DataSet instance field of an algorithm object from the algorithms thread */
-    public void displayClusteredData(XYChart.Series<Number, Number> series){
-        chart.getData().add(series);
+    /* runs the algorithm in place of any earlier run still going, which is cancelled */
+    private void runAlgorithm(Algorithm algorithm){
+        cancelAlgorithm();
+        algorithmRun = algorithmExecutor.submit(algorithm);
+        algorithmRun.completion().whenComplete((result, e) -> {
+            if (e != null) Platform.runLater(this::enableToolbar); // the algorithm was cut short
+        });
+    }
+
+    /** Cancels the running algorithm, if any; it stops at its next interval. */
+    public void cancelAlgorithm(){
+        if (algorithmRun != null && !algorithmRun.isDone()) algorithmRun.cancel();
+    }
+
+    /** Creates a publisher for an algorithm's results, rendering at the configured frame rate */
+    public <T> UpdatePublisher<T> newUpdatePublisher(Consumer<T> renderer){
+        PropertyManager manager   = applicationTemplate.manager;
+        double          frameRate = Double.parseDouble(manager.getPropertyValue(AppPropertyTypes.UPDATE_FRAME_RATE.name()));
+        return new UpdatePublisher<>(frameRate, renderer);
     }
 
     /** Dynamically Load Algorithm Names at runtime */
@@ -826,6 +986,14 @@ public final class AppUI extends UITemplate {
         return "null"; //return null if class not found
     }
 
+    private String getClassifAlg2Name(){
+        PropertyManager manager = applicationTemplate.manager;
+        String  algorithmClassPath = manager.getPropertyValue(AppPropertyTypes.CLASS_ALGORITHM_2_LOCATION.name()); // algorithm class path
+        try { return Class.forName(algorithmClassPath).getSimpleName(); }
+        catch (ClassNotFoundException e) { e.printStackTrace(); }
+        return "null"; //return null if class not found
+    }
+
     private String getClustAlg1Name(){
         PropertyManager manager = applicationTemplate.manager;
         String  algorithmClassPath = manager.getPropertyValue(AppPropertyTypes.CLUST_ALGORITHM_1_LOCATION.name()); // algorithm class path
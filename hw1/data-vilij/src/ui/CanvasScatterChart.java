@@ -0,0 +1,162 @@
+package ui;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.chart.Axis;
+import javafx.scene.chart.LineChart;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.paint.Color;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A chart that draws large numbers of data points onto a single {@link Canvas} instead of creating a scene graph node
+ * for each of them. The points are {@link #plot plotted} straight from primitive coordinate arrays and rasterized into
+ * a pixel buffer on every layout, so the cost of a frame depends on the number of points but not on the scene graph.
+ * <p>
+ * The chart is still a {@link LineChart}: the axes, the legend, and any ordinary series (such as the line a classifier
+ * outputs) work as usual. Each group of plotted points is represented in {@link #getData()} by an empty series, which
+ * gives it its legend entry and its {@link SeriesPalette color}. Removing that series, e.g. by clearing the chart data,
+ * removes the points too.
+ * <p>
+ * Points that would land on the same pixel as another point of the same group are only drawn once: a
+ * {@link PointDownsampler} picks the points to draw whenever the points, the axis ranges or the plot size change. The
+ * points themselves, their bounds and the picking are kept in {@link PlottedPoints}, apart from JavaFX.
+ */
+public final class CanvasScatterChart extends LineChart<Number, Number> {
+
+    private static final int POINT_RADIUS = 3;
+
+    private final Canvas canvas = new Canvas();
+    private int[]        pixels = new int[0];
+
+    /* the plotted points, none until plotted, and the downsampler that picks them, kept for its tables */
+    private PlottedPoints          points;
+    private final PointDownsampler downsampler = new PointDownsampler(PointDownsampler.PIXEL_CELL_SIZE);
+
+    /* per group: the series that stands for it */
+    private final List<Series<Number, Number>> groups = new ArrayList<>();
+
+    public CanvasScatterChart(Axis<Number> xAxis, Axis<Number> yAxis) {
+        super(xAxis, yAxis);
+        canvas.setManaged(false);
+        getPlotChildren().add(0, canvas); // below the nodes of ordinary series
+    }
+
+    /**
+     * Replaces the plotted points. The first <code>n</code> entries of the arrays are plotted, each instance in the
+     * group named by its entry in <code>seriesIds</code>; groups without any instance get no legend entry. The arrays
+     * are kept, not copied, so the coordinates must not change while they are shown.
+     *
+     * @param names     the name of each group, indexed by group id
+     * @param xs        the x coordinates
+     * @param ys        the y coordinates
+     * @param seriesIds the group id of each instance, or a negative value to leave the instance out
+     * @param n         the number of instances
+     */
+    public void plot(List<String> names, double[] xs, double[] ys, int[] seriesIds, int n) {
+        getData().removeAll(groups);
+        groups.clear();
+
+        points = new PlottedPoints(names.size(), xs, ys, seriesIds, n, downsampler);
+        List<Series<Number, Number>> present = new ArrayList<>();
+        for (int id = 0; id < names.size(); id++) {
+            Series<Number, Number> group = null;
+            if (points.hasPoints(id)) {
+                group = new Series<>();
+                group.setName(names.get(id));
+                present.add(group);
+            }
+            groups.add(group);
+        }
+        getData().addAll(0, present); // before any ordinary series, so the groups keep the first colors
+    }
+
+    @Override
+    protected void updateAxisRange() {
+        List<Number> xData = new ArrayList<>();
+        List<Number> yData = new ArrayList<>();
+        for (Series<Number, Number> series : getData())
+            for (Data<Number, Number> data : series.getData()) {
+                xData.add(data.getXValue());
+                yData.add(data.getYValue());
+            }
+        for (int id = 0; id < groups.size(); id++) {
+            if (isShown(groups.get(id))) {
+                xData.add(points.minX(id));
+                xData.add(points.maxX(id));
+                yData.add(points.minY(id));
+                yData.add(points.maxY(id));
+            }
+        }
+        if (getXAxis().isAutoRanging())
+            getXAxis().invalidateRange(xData);
+        if (getYAxis().isAutoRanging())
+            getYAxis().invalidateRange(yData);
+    }
+
+    @Override
+    protected void layoutPlotChildren() {
+        super.layoutPlotChildren();
+        int width  = (int) Math.ceil(getXAxis().getWidth());
+        int height = (int) Math.ceil(getYAxis().getHeight());
+        canvas.setWidth(width);
+        canvas.setHeight(height);
+        if (width <= 0 || height <= 0)
+            return;
+        if (pixels.length != width * height)
+            pixels = new int[width * height];
+        else
+            Arrays.fill(pixels, 0);
+        rasterize(width, height);
+        canvas.getGraphicsContext2D().clearRect(0, 0, width, height);
+        canvas.getGraphicsContext2D().getPixelWriter()
+              .setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), pixels, 0, width);
+    }
+
+    /* draws every shown point as a small disc into the pixel buffer */
+    private void rasterize(int width, int height) {
+        if (points == null || points.size() == 0)
+            return;
+        int[] ids = points.pick(getXAxis().getValueForDisplay(0).doubleValue(),
+                                getXAxis().getValueForDisplay(width).doubleValue(),
+                                getYAxis().getValueForDisplay(height).doubleValue(),
+                                getYAxis().getValueForDisplay(0).doubleValue(), width, height);
+        int[] argbs = new int[groups.size()];
+        for (int id = 0; id < groups.size(); id++)
+            argbs[id] = isShown(groups.get(id)) ? toArgb(SeriesPalette.colorOf(groups.get(id))) : 0;
+
+        // both axes are linear, so a display position is an offset plus a scaled value
+        double x0     = getXAxis().getDisplayPosition(0);
+        double xScale = getXAxis().getDisplayPosition(1) - x0;
+        double y0     = getYAxis().getDisplayPosition(0);
+        double yScale = getYAxis().getDisplayPosition(1) - y0;
+        for (int i = 0; i < points.size(); i++) {
+            int id = ids[i];
+            if (id < 0 || argbs[id] == 0)
+                continue;
+            int px = (int) (x0 + points.x(i) * xScale);
+            int py = (int) (y0 + points.y(i) * yScale);
+            for (int dy = -POINT_RADIUS; dy <= POINT_RADIUS; dy++) {
+                int y = py + dy;
+                if (y < 0 || y >= height)
+                    continue;
+                int dx = (int) Math.sqrt(POINT_RADIUS * POINT_RADIUS - dy * dy);
+                int from = Math.max(px - dx, 0);
+                int to   = Math.min(px + dx, width - 1);
+                if (from <= to)
+                    Arrays.fill(pixels, y * width + from, y * width + to + 1, argbs[id]);
+            }
+        }
+    }
+
+    private boolean isShown(Series<Number, Number> group) { return group != null && getData().contains(group); }
+
+    private static int toArgb(Color color) {
+        return 0xff000000
+               | (int) Math.round(color.getRed() * 255) << 16
+               | (int) Math.round(color.getGreen() * 255) << 8
+               | (int) Math.round(color.getBlue() * 255);
+    }
+}
@@ -0,0 +1,100 @@
+package ui;
+
+import algorithms.spatial.SpatialIndex;
+import algorithms.spatial.UniformGrid;
+import javafx.scene.Cursor;
+import javafx.scene.chart.Axis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseEvent;
+
+/**
+ * Shows the name of the data point under the mouse in a single tooltip for the whole chart, instead of one tooltip
+ * installed on the node of every point. The point is looked up in a {@link UniformGrid} over the data, built the first
+ * time the mouse moves over the chart after the points have been {@link #setPoints set}. This works the same for
+ * every point, whether the chart shows it as a node, draws it on a {@link CanvasScatterChart}, or has dropped it when
+ * {@link PointDownsampler downsampling}.
+ */
+public final class ChartHoverHandler {
+
+    private static final double HOVER_RADIUS   = 6;  // how far from a point the mouse may be, in pixels
+    private static final double TOOLTIP_OFFSET = 12; // how far from the mouse the tooltip is shown, in pixels
+
+    private final XYChart<Number, Number> chart;
+    private final Tooltip                 tooltip = new Tooltip();
+
+    private double[]     xs;
+    private double[]     ys;
+    private String[]     names;
+    private SpatialIndex index;
+
+    /* the nearest point found by the current lookup, and its squared distance from the mouse in pixels */
+    private int          hovered;
+    private double       hoveredDistance;
+
+    public ChartHoverHandler(XYChart<Number, Number> chart) {
+        this.chart = chart;
+        chart.addEventHandler(MouseEvent.MOUSE_MOVED, this::handleMouseMoved);
+        chart.addEventHandler(MouseEvent.MOUSE_EXITED, event -> hide());
+    }
+
+    /** Sets the points to look up, named by the entries of <code>names</code> at the same positions. */
+    public void setPoints(double[] xs, double[] ys, String[] names) {
+        this.xs = xs;
+        this.ys = ys;
+        this.names = names;
+        this.index = null;
+        hide();
+    }
+
+    /** Forgets the points, so nothing is shown until new points are set. */
+    public void clear() { setPoints(null, null, null); }
+
+    private void handleMouseMoved(MouseEvent event) {
+        if (names == null || names.length == 0) {
+            hide();
+            return;
+        }
+        if (index == null)
+            index = new UniformGrid(xs, ys, names.length);
+
+        Axis<Number> xAxis  = chart.getXAxis();
+        Axis<Number> yAxis  = chart.getYAxis();
+        double       mouseX = xAxis.sceneToLocal(event.getSceneX(), event.getSceneY()).getX();
+        double       mouseY = yAxis.sceneToLocal(event.getSceneX(), event.getSceneY()).getY();
+        double       x      = xAxis.getValueForDisplay(mouseX).doubleValue();
+        double       y      = yAxis.getValueForDisplay(mouseY).doubleValue();
+        double       xReach = Math.abs(xAxis.getValueForDisplay(mouseX + HOVER_RADIUS).doubleValue() - x);
+        double       yReach = Math.abs(yAxis.getValueForDisplay(mouseY + HOVER_RADIUS).doubleValue() - y);
+        if (!(xReach > 0) || !(yReach > 0)) { // the chart has not been laid out yet
+            hide();
+            return;
+        }
+
+        // the nearest point by distance on the screen, among the points within reach on both axes
+        hovered = SpatialIndex.NONE;
+        hoveredDistance = HOVER_RADIUS * HOVER_RADIUS;
+        index.forEachInRange(x - xReach, y - yReach, x + xReach, y + yReach, point -> {
+            double dx       = (xs[point] - x) / xReach * HOVER_RADIUS;
+            double dy       = (ys[point] - y) / yReach * HOVER_RADIUS;
+            double distance = dx * dx + dy * dy;
+            if (distance <= hoveredDistance) {
+                hovered = point;
+                hoveredDistance = distance;
+            }
+        });
+
+        if (hovered == SpatialIndex.NONE) {
+            hide();
+            return;
+        }
+        tooltip.setText(names[hovered]);
+        tooltip.show(chart, event.getScreenX() + TOOLTIP_OFFSET, event.getScreenY() + TOOLTIP_OFFSET);
+        chart.setCursor(Cursor.HAND);
+    }
+
+    private void hide() {
+        tooltip.hide();
+        chart.setCursor(Cursor.DEFAULT);
+    }
+}
@@ -18,6 +18,8 @@ import vilij.templates.ApplicationTemplate;
 
 import static settings.AppPropertyTypes.DEFAULT_INTERVAL_VAL;
 import static settings.AppPropertyTypes.DEFAULT_ITERATIONS_VAL;
+import static settings.AppPropertyTypes.MAX_CLUSTERS_VAL;
+import static settings.AppPropertyTypes.MIN_CLUSTERS_VAL;
 
 public class ClusteringConfigUI extends ConfigUI{
 
@@ -99,7 +101,7 @@ public class ClusteringConfigUI extends ConfigUI{
         intervalField.setMaxWidth(35);
         intervalField.setMaxHeight(10);
 
-        totalDistinctLblsFeild.setMaxWidth(30);
+        totalDistinctLblsFeild.setMaxWidth(40);
         totalDistinctLblsFeild.setMaxHeight(10);
 
         iterationsPane.setPadding(new Insets(5));
@@ -148,7 +150,12 @@ public class ClusteringConfigUI extends ConfigUI{
         try {
             if(Integer.parseInt(iterationsField.getText()) <= 0) { iterationsField.setText("1"); }
             if(Integer.parseInt(intervalField.getText()) <= 0)   { intervalField.setText("1"); }
-            if(Integer.parseInt(totalDistinctLblsFeild.getText()) <= 0) { totalDistinctLblsFeild.setText("1"); return true; }
+            int minClusters = Integer.parseInt(manager.getPropertyValue(MIN_CLUSTERS_VAL.name()));
+            int maxClusters = Integer.parseInt(manager.getPropertyValue(MAX_CLUSTERS_VAL.name()));
+            int clusters    = Integer.parseInt(totalDistinctLblsFeild.getText());
+            if(clusters < minClusters || clusters > maxClusters) { // how many clusters the chart can tell apart
+                totalDistinctLblsFeild.setText(String.valueOf(Math.max(minClusters, Math.min(clusters, maxClusters))));
+            }
         } catch (Exception e) { setDefaultFeildValues();
                                 return true; }
         return true;
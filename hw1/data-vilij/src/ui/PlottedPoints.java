@@ -0,0 +1,93 @@
+package ui;
+
+import java.util.Arrays;
+
+/**
+ * The points a {@link CanvasScatterChart} plots, without anything of JavaFX: the coordinates and the group of each
+ * point, the bounds of each group, and the points picked to draw for the latest view. The points are picked by a
+ * {@link PointDownsampler} and picked again only when the view changes, so a chart that is laid out again without
+ * being moved or resized does not pass over its points twice.
+ */
+final class PlottedPoints {
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int[]    groupIds; // the group of each point, or a negative value for none
+    private final int      size;
+
+    /* per group: the bounds of its points */
+    private final double[] minXs;
+    private final double[] maxXs;
+    private final double[] minYs;
+    private final double[] maxYs;
+
+    /* the points picked for the current view, and the view they were picked for */
+    private final PointDownsampler downsampler;
+    private int[]                  shownIds;
+    private double[]               shownView;
+
+    /**
+     * The arrays are kept, not copied.
+     *
+     * @param numberOfGroups the number of group ids
+     * @param groupIds       the group id of each point, or a negative value to leave the point out
+     * @param n              the number of points
+     */
+    PlottedPoints(int numberOfGroups, double[] xs, double[] ys, int[] groupIds, int n, PointDownsampler downsampler) {
+        this.xs = xs;
+        this.ys = ys;
+        this.groupIds = groupIds;
+        this.size = n;
+        this.downsampler = downsampler;
+        minXs = new double[numberOfGroups];
+        maxXs = new double[numberOfGroups];
+        minYs = new double[numberOfGroups];
+        maxYs = new double[numberOfGroups];
+        Arrays.fill(minXs, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxXs, Double.NEGATIVE_INFINITY);
+        Arrays.fill(minYs, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxYs, Double.NEGATIVE_INFINITY);
+        for (int i = 0; i < n; i++) {
+            int id = groupIds[i];
+            if (id < 0)
+                continue;
+            minXs[id] = Math.min(minXs[id], xs[i]);
+            maxXs[id] = Math.max(maxXs[id], xs[i]);
+            minYs[id] = Math.min(minYs[id], ys[i]);
+            maxYs[id] = Math.max(maxYs[id], ys[i]);
+        }
+    }
+
+    int size() { return size; }
+
+    double x(int i) { return xs[i]; }
+
+    double y(int i) { return ys[i]; }
+
+    int numberOfGroups() { return minXs.length; }
+
+    /** @return whether the group has any point */
+    boolean hasPoints(int groupId) { return minXs[groupId] <= maxXs[groupId]; }
+
+    double minX(int groupId) { return minXs[groupId]; }
+
+    double maxX(int groupId) { return maxXs[groupId]; }
+
+    double minY(int groupId) { return minYs[groupId]; }
+
+    double maxY(int groupId) { return maxYs[groupId]; }
+
+    /**
+     * @return the group id of each point to draw in the given view, and -1 for the others; the same array as the last
+     * time if the view has not changed since
+     */
+    int[] pick(double minX, double maxX, double minY, double maxY, int width, int height) {
+        double[] view = { minX, maxX, minY, maxY, width, height };
+        if (shownIds == null || !Arrays.equals(view, shownView)) {
+            shownIds = downsampler.downsample(xs, ys, groupIds, size, numberOfGroups(),
+                                              minX, maxX, minY, maxY, width, height);
+            shownView = view;
+        }
+        return shownIds;
+    }
+}
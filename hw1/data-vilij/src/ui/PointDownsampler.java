@@ -0,0 +1,135 @@
+package ui;
+
+import javafx.scene.chart.XYChart;
+
+import java.util.Arrays;
+
+/**
+ * Thins out data points that would be drawn on top of each other. The visible part of the plane is divided into a grid
+ * of screen-space cells, a few pixels wide, and of the points of each label that fall into a cell only the first one is
+ * kept. Every occupied cell keeps a point of each label in it, so isolated points and outliers are never dropped and the
+ * shape of each cluster is preserved, while the number of points drawn is bounded by the number of cells, not by the
+ * number of instances.
+ * <p>
+ * Points outside the visible bounds are dropped as well, so the result must be recomputed whenever the bounds or the
+ * size of the plot change. Data with no more points than cells is left as it is.
+ * <p>
+ * The occupied (label, cell) pairs are marked in a table with a slot per pair, unless there are so many labels that the
+ * table would grow past {@value #DENSE_LIMIT} slots; then they go into a hash set sized by the number of points instead.
+ */
+public final class PointDownsampler {
+
+    /** The cell size for charts that create a node per point, which should stay in the low thousands. */
+    public static final int NODE_CELL_SIZE   = 8;
+    /** The cell size for charts that rasterize their points, i.e., one cell per pixel. */
+    public static final int PIXEL_CELL_SIZE  = 1;
+    /** The plot size assumed when the chart has not been laid out yet. */
+    public static final int DEFAULT_WIDTH    = 700;
+    public static final int DEFAULT_HEIGHT   = 500;
+
+    /* the largest number of (label, cell) pairs marked in a table of their own */
+    static final int        DENSE_LIMIT      = 1 << 22;
+
+    private final int cellSize;
+    private int[]     cellStamps = new int[0]; // the call in which a (label, cell) pair was last occupied
+    private int       stamp;
+    private long[]    occupied   = new long[0]; // the (label, cell) pairs occupied in this call, plus one, when hashed
+    private int       shift;
+
+    public PointDownsampler(int cellSize) { this.cellSize = cellSize; }
+
+    /** @return the width of the chart's plot area, or the default width if it has not been laid out yet */
+    public static double plotWidth(XYChart<?, ?> chart) {
+        double width = chart.getXAxis().getWidth();
+        return width > 0 ? width : DEFAULT_WIDTH;
+    }
+
+    /** @return the height of the chart's plot area, or the default height if it has not been laid out yet */
+    public static double plotHeight(XYChart<?, ?> chart) {
+        double height = chart.getYAxis().getHeight();
+        return height > 0 ? height : DEFAULT_HEIGHT;
+    }
+
+    /**
+     * Picks the points to draw.
+     *
+     * @param xs             the x coordinates
+     * @param ys             the y coordinates
+     * @param ids            the label id of each instance, or a negative value for instances that are not drawn
+     * @param n              the number of instances
+     * @param numberOfLabels the number of distinct label ids
+     * @param minX           the smallest visible x coordinate
+     * @param maxX           the largest visible x coordinate
+     * @param minY           the smallest visible y coordinate
+     * @param maxY           the largest visible y coordinate
+     * @param width          the width of the plot, in pixels
+     * @param height         the height of the plot, in pixels
+     * @return the label ids of the first <code>n</code> instances, with <code>-1</code> for each dropped instance; the
+     * given array itself if nothing had to be dropped
+     */
+    public int[] downsample(double[] xs, double[] ys, int[] ids, int n, int numberOfLabels,
+                            double minX, double maxX, double minY, double maxY, double width, double height) {
+        int columns = Math.max((int) Math.ceil(width / cellSize), 1);
+        int rows    = Math.max((int) Math.ceil(height / cellSize), 1);
+        int cells   = columns * rows;
+        if (n <= cells)
+            return ids;
+        boolean dense = (long) cells * numberOfLabels <= DENSE_LIMIT;
+        if (dense) {
+            if (cellStamps.length < cells * numberOfLabels)
+                cellStamps = new int[cells * numberOfLabels];
+            if (++stamp == 0) { // the stamps wrapped around
+                Arrays.fill(cellStamps, 0);
+                stamp = 1;
+            }
+        } else {
+            int slots = Integer.highestOneBit(n) << 2; // there are no more pairs than points, so at most half full
+            if (occupied.length != slots) {
+                occupied = new long[slots];
+                shift = Long.numberOfLeadingZeros(slots) + 1;
+            } else {
+                Arrays.fill(occupied, 0);
+            }
+        }
+
+        double columnScale = (maxX > minX) ? columns / (maxX - minX) : 0;
+        double rowScale    = (maxY > minY) ? rows / (maxY - minY) : 0;
+        int[]  kept        = new int[n];
+        for (int i = 0; i < n; i++) {
+            int    id = ids[i];
+            double x  = xs[i];
+            double y  = ys[i];
+            kept[i] = -1;
+            if (id < 0 || x < minX || x > maxX || y < minY || y > maxY)
+                continue;
+            int column = Math.min((int) ((x - minX) * columnScale), columns - 1);
+            int row    = Math.min((int) ((y - minY) * rowScale), rows - 1);
+            int cell   = row * columns + column;
+            if (dense ? mark(id * cells + cell) : markHashed(id, cell))
+                kept[i] = id;
+        }
+        return kept;
+    }
+
+    /* marks the pair occupied in the table, and returns whether it was free */
+    private boolean mark(int pair) {
+        if (cellStamps[pair] == stamp)
+            return false;
+        cellStamps[pair] = stamp;
+        return true;
+    }
+
+    /* marks the pair occupied in the hash set, and returns whether it was free */
+    private boolean markHashed(int id, int cell) {
+        long key  = ((long) id << 32 | cell) + 1;
+        int  mask = occupied.length - 1;
+        int  slot = (int) (key * 0x9E3779B97F4A7C15L >>> shift);
+        while (occupied[slot] != 0) {
+            if (occupied[slot] == key)
+                return false;
+            slot = (slot + 1) & mask;
+        }
+        occupied[slot] = key;
+        return true;
+    }
+}
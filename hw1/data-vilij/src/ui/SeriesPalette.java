@@ -0,0 +1,80 @@
+package ui;
+
+import javafx.scene.chart.XYChart;
+import javafx.scene.paint.Color;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The colors of the series of a chart, for any number of series. The modena stylesheet only has eight series colors,
+ * <code>.default-color0</code> to <code>.default-color7</code>, and repeats them from the ninth series on, so with
+ * many clusters most of them would share a color. The palette starts with those eight, and continues with hues spaced
+ * by the golden angle, in a few alternating shades, so any two series near each other in the chart look different.
+ * <p>
+ * A chart gets the palette from a {@link #install generated stylesheet} with one rule per series, which colors the
+ * series' symbols and legend entry by the <code>.series<i>n</i></code> style class the chart gives them. No node needs a
+ * style of its own.
+ */
+public final class SeriesPalette {
+
+    /* the default series colors of the modena stylesheet, .default-color0 to .default-color7 */
+    private static final Color[] DEFAULT_COLORS = {
+            Color.web("#f3622d"), Color.web("#fba71b"), Color.web("#57b757"), Color.web("#41a9c9"),
+            Color.web("#4258c9"), Color.web("#9a42c8"), Color.web("#c84164"), Color.web("#888888")
+    };
+    private static final double  GOLDEN_ANGLE   = 137.50776405;
+    private static final double[] SATURATIONS   = { 0.75, 0.55, 0.90 };
+    private static final double[] BRIGHTNESSES  = { 0.85, 0.65, 0.95 };
+    private static final String  SERIES_CLASS   = "series";
+
+    private SeriesPalette() { }
+
+    /** @return the color of the series at the given position in the chart's data */
+    public static Color colorOf(int seriesIndex) {
+        if (seriesIndex < DEFAULT_COLORS.length)
+            return DEFAULT_COLORS[seriesIndex];
+        int    generated = seriesIndex - DEFAULT_COLORS.length;
+        double hue       = (generated * GOLDEN_ANGLE) % 360;
+        return Color.hsb(hue, SATURATIONS[generated % SATURATIONS.length],
+                         BRIGHTNESSES[generated / SATURATIONS.length % BRIGHTNESSES.length]);
+    }
+
+    /** @return the color of the series, by the <code>.series<i>n</i></code> style class of its node */
+    public static Color colorOf(XYChart.Series<?, ?> series) {
+        if (series.getNode() != null)
+            for (String styleClass : series.getNode().getStyleClass())
+                if (styleClass.startsWith(SERIES_CLASS) && styleClass.length() > SERIES_CLASS.length()
+                    && Character.isDigit(styleClass.charAt(SERIES_CLASS.length())))
+                    return colorOf(Integer.parseInt(styleClass.substring(SERIES_CLASS.length())));
+        return DEFAULT_COLORS[0];
+    }
+
+    /**
+     * Adds a stylesheet to the chart that colors its series from the ninth up to the given number of series; the first
+     * eight keep the colors of the default stylesheet.
+     */
+    public static void install(XYChart<?, ?> chart, int numberOfSeries) {
+        try {
+            Path stylesheet = Files.createTempFile("series-palette", ".css");
+            stylesheet.toFile().deleteOnExit();
+            try (Writer writer = Files.newBufferedWriter(stylesheet, StandardCharsets.UTF_8)) {
+                for (int i = DEFAULT_COLORS.length; i < numberOfSeries; i++)
+                    writer.append(String.format(".chart-line-symbol.%s%d { -fx-background-color: %s, white; }%n",
+                                                SERIES_CLASS, i, toWeb(colorOf(i))));
+            }
+            chart.getStylesheets().add(stylesheet.toUri().toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toWeb(Color color) {
+        return String.format("#%02x%02x%02x", (int) Math.round(color.getRed() * 255),
+                             (int) Math.round(color.getGreen() * 255), (int) Math.round(color.getBlue() * 255));
+    }
+}
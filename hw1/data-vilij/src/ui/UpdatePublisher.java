@@ -0,0 +1,82 @@
+package ui;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Hands the results of a running algorithm over to the UI without slowing the algorithm down. The algorithm thread
+ * {@link #publish publishes} a snapshot of its latest result whenever it has one, and never waits. On the JavaFX
+ * application thread, the newest snapshot is pulled and rendered at most once per frame, at the configured frame rate;
+ * any snapshots published in between are dropped, since they are already stale.
+ * <p>
+ * The pacing itself needs no JavaFX: each frame of the timer is handed to {@link #frame}, which decides whether to
+ * render.
+ *
+ * @param <T> the type of the snapshots
+ */
+public final class UpdatePublisher<T> {
+
+    private final AtomicReference<T> latest = new AtomicReference<>();
+    private final Consumer<T>        renderer;
+    private final long               frameNanos;
+    private long                     lastFrame = Long.MIN_VALUE; // when a snapshot was last rendered, if ever
+    private AnimationTimer           timer;                      // created on start, on the application thread
+
+    /**
+     * @param framesPerSecond the maximum number of snapshots rendered per second
+     * @param renderer        renders a snapshot, called on the JavaFX application thread
+     */
+    public UpdatePublisher(double framesPerSecond, Consumer<T> renderer) {
+        this.renderer = renderer;
+        this.frameNanos = (long) (1e9 / framesPerSecond);
+    }
+
+    /** Starts rendering published snapshots. May be called from any thread. */
+    public void start() {
+        Platform.runLater(() -> {
+            timer = new AnimationTimer() {
+                @Override
+                public void handle(long now) { frame(now); }
+            };
+            timer.start();
+        });
+    }
+
+    /** Replaces any snapshot that has not been rendered yet. May be called from any thread. */
+    public void publish(T snapshot) { latest.set(snapshot); }
+
+    /** Stops rendering, after rendering the last published snapshot if it has not been rendered yet. */
+    public void stop() {
+        Platform.runLater(() -> {
+            if (timer != null)
+                timer.stop();
+            render();
+        });
+    }
+
+    /**
+     * Called on every frame, at the given time in nanoseconds: renders the newest snapshot, if there is one and at least
+     * a frame's time has passed since the last one was rendered.
+     *
+     * @return whether a snapshot was rendered
+     */
+    boolean frame(long now) {
+        if (lastFrame != Long.MIN_VALUE && now - lastFrame < frameNanos)
+            return false;
+        if (!render())
+            return false;
+        lastFrame = now;
+        return true;
+    }
+
+    private boolean render() {
+        T snapshot = latest.getAndSet(null);
+        if (snapshot == null)
+            return false;
+        renderer.accept(snapshot);
+        return true;
+    }
+}
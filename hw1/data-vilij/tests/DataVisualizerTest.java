@@ -1,20 +1,31 @@
 import algorithms.*;
+import algorithms.spatial.KDTree;
+import algorithms.spatial.SpatialIndex;
+import algorithms.spatial.UniformGrid;
+import dataprocessors.DataStatistics;
 import dataprocessors.TSDProcessor;
 import org.junit.Assert;
 import org.junit.Test;
+import ui.PointDownsampler;
 import javafx.geometry.Point2D;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.Map;
 
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
 
 public class DataVisualizerTest {
 
@@ -98,6 +109,165 @@ public class DataVisualizerTest {
         assertEquals(expected, output);
     }
 
+    /***
+     *  Processes several lines of tab separated data from a stream, where the third line has an invalid instance name.
+     *  @result An Exception is thrown after the whole input is read, the line of the error is recorded, and the valid
+     *  lines are still processed.
+     */
+    @Test
+    public void tsdStreamLineOfErrorTest() {
+        String tsd = "@a\tlabel1\t1,1\n@b\tlabel1\t2.5,-3\nc\tlabel2\t1,1\n@d\tlabel2\t4,4\n\n";
+
+        boolean failed = false;
+        try {
+            processor.processStream(new ByteArrayInputStream(tsd.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            failed = true;
+        }
+
+        assertTrue(failed);
+        assertEquals(3, processor.lineOfError.get());
+        assertEquals(4, processor.numOfInstances.intValue());
+        assertEquals(new Point2D(2.5, -3), processor.getDataPoints().get("@b"));
+        assertEquals("label2", processor.getDataLabels().get("@d"));
+    }
+
+    /***
+     *  Processes several lines of tab separated data, and compares the summary statistics of the data, over all points
+     *  and per label, to those computed by hand.
+     *  @result The bounds, means and variances match, and the labels are listed in the order they first appear.
+     */
+    @Test
+    public void tsdStatisticsTest() throws Exception {
+        processor.processString("@a\tlabel2\t1,10\n@b\tlabel1\t3,-2\n@c\tlabel2\t5,4\n@d\tnull\t-1,0");
+
+        DataStatistics.Summary total = processor.getStatistics().getSummary();
+        assertEquals(4, total.getCount());
+        assertEquals(-1.0, total.getMinX());
+        assertEquals(5.0, total.getMaxX());
+        assertEquals(-2.0, total.getMinY());
+        assertEquals(10.0, total.getMaxY());
+        assertEquals(2.0, total.getMeanX(), 1e-12);
+        assertEquals(3.0, total.getMeanY(), 1e-12);
+        assertEquals(5.0, total.getVarianceX(), 1e-12);   // squared deviations 1, 1, 9, 9
+        assertEquals(21.0, total.getVarianceY(), 1e-12);  // squared deviations 49, 25, 1, 9
+
+        DataStatistics.Summary label2 = processor.getStatistics().getSummary("label2");
+        assertEquals(2, label2.getCount());
+        assertEquals(3.0, label2.getMeanX(), 1e-12);
+        assertEquals(4.0, label2.getVarianceX(), 1e-12);
+        assertEquals(9.0, label2.getVarianceY(), 1e-12);
+        assertEquals(Arrays.asList("label2", "label1", "null"), new ArrayList<>(processor.getStatistics().getLabels()));
+
+        processor.generateLabelInfo();
+        assertEquals(Arrays.asList("label2", "label1"), processor.distinctLabels);
+    }
+
+    /***
+     *  Processes a stream of tab separated data where the name on the second line is given again on the fourth line,
+     *  and a later line has an invalid instance name; then a stream whose first line has an invalid location and whose
+     *  second line gives the same name with a valid location.
+     *  @result A DuplicateNameException naming the duplicate is thrown at the fourth line, so the lines after it are
+     *  never processed, and the line of the error is the line of the duplicate. The name of a line that failed to
+     *  parse is not taken, so the second stream fails on the invalid location at its first line, with the second line
+     *  loaded.
+     */
+    @Test
+    public void tsdDuplicateNameTest() {
+        String tsd = "@a\tlabel1\t1,1\n@b\tlabel1\t2,2\n@c\tlabel2\t3,3\n@b\tlabel2\t4,4\n@e\tlabel2\t5,5\nf\tlabel2\t6,6";
+
+        TSDProcessor.DuplicateNameException duplicate = null;
+        try {
+            processor.processStream(new ByteArrayInputStream(tsd.getBytes(StandardCharsets.UTF_8)));
+        } catch (TSDProcessor.DuplicateNameException e) {
+            duplicate = e;
+        } catch (Exception e) {
+            fail("the duplicate should have stopped the processing: " + e.getMessage());
+        }
+
+        assertTrue(duplicate != null);
+        assertEquals("@b", duplicate.getName());
+        assertEquals(4, processor.lineOfError.get());
+        assertEquals(4, processor.numOfInstances.intValue());
+        assertEquals(new Point2D(2, 2), processor.getDataPoints().get("@b"));
+        assertTrue(!processor.getDataPoints().containsKey("@e"));
+
+        String badThenValid = "@a\tlabel1\t1,x\n@a\tlabel1\t2,2";
+        try {
+            processor.processStream(new ByteArrayInputStream(badThenValid.getBytes(StandardCharsets.UTF_8)));
+            fail("the invalid location should have been reported");
+        } catch (TSDProcessor.DuplicateNameException e) {
+            fail("a line that failed to parse should not hold its name: " + e.getMessage());
+        } catch (Exception expected) { }
+        assertEquals(1, processor.lineOfError.get());
+        assertEquals(new Point2D(2, 2), processor.getDataPoints().get("@a"));
+    }
+
+    /***
+     *  Processes a file of 100,000 lines of tab separated data while listening to its progress, then processes it again
+     *  with a listener that cancels the processing after the first chunk of the file.
+     *  @result The bytes read only ever grow, up to the size of the file, and all lines are processed; the cancelled
+     *  processing stops with the CancellationException thrown by the listener, before the end of the file.
+     */
+    @Test
+    public void tsdFileProgressTest() throws Exception {
+        File tsdFile = File.createTempFile("progress", ".tsd");
+        tsdFile.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(tsdFile, "UTF-8")) {
+            for (int i = 0; i < 100_000; i++)
+                writer.print("@instance" + i + "\tlabel" + (i % 3) + "\t" + i + ".5," + (-i) + "\n");
+        }
+
+        List<Long> reads = new ArrayList<>();
+        processor.processFile(tsdFile.toPath(), (read, total) -> {
+            assertEquals(tsdFile.length(), total);
+            reads.add(read);
+        });
+
+        assertTrue(reads.size() > 1);
+        for (int i = 1; i < reads.size(); i++)
+            assertTrue(reads.get(i) >= reads.get(i - 1));
+        assertEquals(tsdFile.length(), reads.get(reads.size() - 1).longValue());
+        assertEquals(100_000, processor.getDataPoints().size());
+
+        long[] stoppedAt = new long[1];
+        try {
+            processor.processFile(tsdFile.toPath(), (read, total) -> {
+                stoppedAt[0] = read;
+                throw new CancellationException();
+            });
+            fail("the listener should have cancelled the processing");
+        } catch (CancellationException expected) {
+            assertTrue(stoppedAt[0] < tsdFile.length());
+        }
+    }
+
+
+    /***
+     *  Adds instances to a DataSet through both its columns and its map views.
+     *  @result Both representations agree, labels are interned once, and re-adding an existing name replaces it.
+     */
+    @Test
+    public void dataSetColumnsAndViewsTest() {
+        DataSet dataSet = new DataSet(1);
+        dataSet.addInstance("@a", "label1", 1, 2);
+        dataSet.addInstance("@b", "label2", 3, 4);
+        dataSet.getLabels().put("@c", "label1");
+        dataSet.getLocations().put("@c", new Point2D(5, 6));
+        dataSet.addInstance("@a", "label2", 7, 8);
+
+        assertEquals(3, dataSet.size());
+        assertEquals(2, dataSet.getNumberOfLabels());
+        assertEquals(dataSet.getLabelId(dataSet.indexOf("@a")), dataSet.getLabelId(dataSet.indexOf("@b")));
+        assertEquals(new Point2D(7, 8), dataSet.getLocations().get("@a"));
+        assertEquals(6.0, dataSet.getYs()[dataSet.indexOf("@c")]);
+        assertEquals("label1", dataSet.getLabels().get("@c"));
+
+        dataSet.updateLabel("@b", "label3");
+        assertEquals("label3", dataSet.getLabels().get("@b"));
+        assertEquals(3, new HashSet<>(dataSet.getLabels().values()).size());
+    }
+
 
     /* Tests for saving data from the text-area in the UI to a .tsd file. */
 
@@ -412,5 +582,544 @@ public class DataVisualizerTest {
         assertEquals(false, outputRandomClassifier.tocontinue());
     }
 
+    /***
+     *  Runs KMeansClusterer without a UI through the listener API, on two well separated groups of instances.
+     *  @result Every interval and the end of the run are reported to the listener, and each group gets its own label.
+     */
+    @Test
+    public void headlessKMeansClustererRunTest() {
+        DataSet dataSet = new DataSet();
+        dataSet.addInstance("@a", "null", 0, 0);
+        dataSet.addInstance("@b", "null", 0, 1);
+        dataSet.addInstance("@c", "null", 100, 100);
+        dataSet.addInstance("@d", "null", 100, 101);
+
+        int[]      intervals = new int[1];
+        int[]      finished  = new int[1];
+        Clusterer  clusterer = new KMeansClusterer(dataSet, 50, 1, 2, dataSet.size(), true, null);
+        int        iterations = clusterer.run(new AlgorithmListener() {
+            @Override
+            public void intervalCompleted(Algorithm algorithm, int iteration) { intervals[0]++; }
+
+            @Override
+            public void finished(Algorithm algorithm, int total) { finished[0] = total; }
+        });
+
+        assertEquals(iterations, intervals[0]);
+        assertEquals(iterations, finished[0]);
+        assertEquals(dataSet.labelAt(0), dataSet.labelAt(1));
+        assertEquals(dataSet.labelAt(2), dataSet.labelAt(3));
+        assertTrue(!dataSet.labelAt(0).equals(dataSet.labelAt(2)));
+    }
+
+    /***
+     *  Runs KMeansClusterer and HamerlyKMeansClusterer on instances so far out that every squared distance overflows
+     *  to infinity, or is NaN.
+     *  @result Neither run fails, and every instance is labelled with one of the clusters.
+     */
+    @Test
+    public void overflowingDistancesKMeansClustererRunTest() {
+        for (boolean hamerly : new boolean[]{ false, true }) {
+            DataSet dataSet = new DataSet();
+            dataSet.addInstance("@a", "null", 1e200, -1e200);
+            dataSet.addInstance("@b", "null", -1e200, 1e200);
+            dataSet.addInstance("@c", "null", 1e300, 1e300);
+            dataSet.addInstance("@d", "null", -1e300, -1e300);
+
+            Clusterer clusterer = hamerly ? new HamerlyKMeansClusterer(dataSet, 5, 1, 2, dataSet.size(), true, null)
+                                          : new KMeansClusterer(dataSet, 5, 1, 2, dataSet.size(), true, null);
+            clusterer.run(AlgorithmListener.NONE);
+
+            for (int i = 0; i < dataSet.size(); i++)
+                assertTrue(dataSet.labelAt(i).equals("0") || dataSet.labelAt(i).equals("1"));
+        }
+    }
+
+    /***
+     *  Tests the bounds of the number of clusters, and clusters 200 well separated groups of 5 instances each.
+     *  @result Any number of clusters from 1 to the number of instances is accepted, and every group gets a label of
+     *  its own; no clusters, more clusters than instances, and more than the largest number allowed are rejected.
+     */
+    @Test
+    public void clusterBoundsTest() {
+        DataSet dataSet = new DataSet();
+        for (int group = 0; group < 200; group++)
+            for (int i = 0; i < 5; i++)
+                dataSet.addInstance("@" + group + "-" + i, "null", group % 20 * 100 + i * .01, group / 20 * 100 + i * .01);
+
+        assertEquals(300, new KMeansClusterer(null, 10, 1, 300, 1000, true, null).getNumberOfClusters());
+        for (int[] bounds : new int[][]{ { 0, 1000 }, { -1, 1000 }, { 1001, 1000 },
+                                         { Clusterer.DEFAULT_MAX_CLUSTERS + 1, Integer.MAX_VALUE } }) {
+            try {
+                new KMeansClusterer(null, 10, 1, bounds[0], bounds[1], true, null);
+                fail(bounds[0] + " clusters of " + bounds[1] + " instances");
+            } catch (IllegalArgumentException expected) { }
+        }
+
+        Clusterer clusterer = new KMeansClusterer(dataSet, 100, 100, 200, dataSet.size(), true, null);
+        clusterer.setRandomSeed(17);
+        clusterer.run(AlgorithmListener.NONE);
+        Set<String> labels = new HashSet<>();
+        for (int group = 0; group < 200; group++) {
+            for (int i = 1; i < 5; i++)
+                assertEquals(dataSet.labelAt(group * 5), dataSet.labelAt(group * 5 + i));
+            labels.add(dataSet.labelAt(group * 5));
+        }
+        assertEquals(200, labels.size());
+    }
+
+    /***
+     *  Runs the accelerated k-means headlessly on two distant blobs of 50 points each, on a grid so that many
+     *  instances are as near to one centroid as to another.
+     *  @result Each blob ends up in a cluster of its own, and the run stops once the centroids no longer move.
+     */
+    @Test
+    public void hamerlyKMeansClustererRunTest() {
+        DataSet dataSet = new DataSet();
+        for (int i = 0; i < 50; i++) {
+            dataSet.addInstance("@a" + i, "null", i % 5, i / 5);
+            dataSet.addInstance("@b" + i, "null", 1000 + i % 5, 1000 + i / 5);
+        }
+
+        Clusterer clusterer  = new HamerlyKMeansClusterer(dataSet, 50, 1, 2, dataSet.size(), true, null);
+        int       iterations = clusterer.run(AlgorithmListener.NONE);
+
+        assertTrue(iterations < 50);
+        assertTrue(!clusterer.tocontinue());
+        for (int i = 2; i < dataSet.size(); i++)
+            assertEquals(dataSet.labelAt(i % 2), dataSet.labelAt(i));
+        assertTrue(!dataSet.labelAt(0).equals(dataSet.labelAt(1)));
+    }
+
+    /***
+     *  Runs KMeansClusterer and the accelerated HamerlyKMeansClusterer with the same seed on 3,000 instances drawn from
+     *  five overlapping Gaussian blobs, with 10 clusters, reporting every iteration.
+     *  @result Both runs take the same number of iterations, and the label of every instance is the same in both after
+     *  every iteration.
+     */
+    @Test
+    public void hamerlyMatchesKMeansClustererTest() {
+        List<List<int[]>> runs = new ArrayList<>();
+        for (boolean hamerly : new boolean[]{ false, true }) {
+            Random  random  = new Random(7); // the same instances for both runs
+            DataSet dataSet = new DataSet();
+            for (int i = 0; i < 3000; i++)
+                dataSet.addInstance("@" + i, "null", (i % 5) * 3 + random.nextGaussian() * 2,
+                                                     (i % 5 % 2) * 3 + random.nextGaussian() * 2);
+
+            Clusterer clusterer = hamerly ? new HamerlyKMeansClusterer(dataSet, 100, 1, 10, dataSet.size(), true, null)
+                                          : new KMeansClusterer(dataSet, 100, 1, 10, dataSet.size(), true, null);
+            clusterer.setRandomSeed(42);
+            List<int[]> labelsPerInterval = new ArrayList<>();
+            clusterer.run(new AlgorithmListener() {
+                @Override
+                public void intervalCompleted(Algorithm algorithm, int iteration) {
+                    int[] labels = new int[dataSet.size()];
+                    for (int i = 0; i < labels.length; i++)
+                        labels[i] = Integer.parseInt(dataSet.labelAt(i));
+                    labelsPerInterval.add(labels);
+                }
+            });
+            runs.add(labelsPerInterval);
+        }
+
+        assertTrue(runs.get(0).size() > 2);
+        assertEquals(runs.get(0).size(), runs.get(1).size());
+        for (int interval = 0; interval < runs.get(0).size(); interval++)
+            assertTrue("interval " + (interval + 1),
+                       Arrays.equals(runs.get(0).get(interval), runs.get(1).get(interval)));
+    }
+
+    /***
+     *  Runs KMeansClusterer on 33,768 instances drawn from eight overlapping Gaussian blobs, enough for the assignment
+     *  step to be split across the fork/join pool, with 8 clusters, reporting every iteration. After each iteration,
+     *  the means of the clusters are computed here in a plain sequential pass, and every instance is compared with each
+     *  of them.
+     *  @result Every cluster keeps instances, and after every iteration each instance is labelled with a cluster whose
+     *  mean, as of the iteration before, is as near to it as any other; i.e., the forked assignment and the merged
+     *  sums give the same result as a sequential pass.
+     */
+    @Test
+    public void parallelKMeansClustererAssignmentTest() {
+        Random  random  = new Random(11);
+        DataSet dataSet = new DataSet();
+        for (int i = 0; i < 2 * (1 << 14) + 1000; i++)
+            dataSet.addInstance("@" + i, "null", (i % 8) * 4 + random.nextGaussian() * 2,
+                                                 (i % 8 / 4) * 4 + random.nextGaussian() * 2);
+        int n = dataSet.size();
+        int k = 8;
+
+        Clusterer clusterer = new KMeansClusterer(dataSet, 100, 1, k, n, true, null);
+        clusterer.setRandomSeed(3);
+        List<int[]> labelsPerInterval = new ArrayList<>();
+        clusterer.run(new AlgorithmListener() {
+            @Override
+            public void intervalCompleted(Algorithm algorithm, int iteration) {
+                int[] labels = new int[n];
+                for (int i = 0; i < n; i++)
+                    labels[i] = Integer.parseInt(dataSet.labelAt(i));
+                labelsPerInterval.add(labels);
+            }
+        });
+
+        assertTrue(labelsPerInterval.size() > 2);
+        for (int interval = 1; interval < labelsPerInterval.size(); interval++) {
+            int[]                  previous = labelsPerInterval.get(interval - 1);
+            int[]                  labels   = labelsPerInterval.get(interval);
+            Map<Integer, double[]> sums     = new TreeMap<>(); // the x-sum, y-sum and count of each label
+            for (int i = 0; i < n; i++) {
+                double[] sum = sums.computeIfAbsent(previous[i], label -> new double[3]);
+                sum[0] += dataSet.getXs()[i];
+                sum[1] += dataSet.getYs()[i];
+                sum[2]++;
+            }
+            assertEquals(k, sums.size());
+            for (int i = 0; i < n; i++) {
+                double own     = Double.NaN;
+                double nearest = Double.POSITIVE_INFINITY;
+                for (Map.Entry<Integer, double[]> entry : sums.entrySet()) {
+                    double[] sum = entry.getValue();
+                    double   dx  = dataSet.getXs()[i] - sum[0] / sum[2];
+                    double   dy  = dataSet.getYs()[i] - sum[1] / sum[2];
+                    double   d   = dx * dx + dy * dy;
+                    nearest = Math.min(nearest, d);
+                    if (entry.getKey() == labels[i])
+                        own = d;
+                }
+                assertTrue("instance " + i + " after iteration " + (interval + 1), own <= nearest + 1e-9);
+            }
+        }
+    }
+
+    /***
+     *  Streams a file of two distant blobs of 2,000 points each through the mini-batch k-means, with batches of 100
+     *  instances, and writes the labelled instances.
+     *  @result Each blob ends up in a cluster of its own, and every instance is written in the order of the input.
+     */
+    @Test
+    public void miniBatchKMeansClustererStreamingTest() throws IOException {
+        File input  = File.createTempFile("blobs", ".tsd");
+        File output = File.createTempFile("labelled", ".tsd");
+        input.deleteOnExit();
+        output.deleteOnExit();
+        Random random = new Random(15);
+        try (PrintWriter writer = new PrintWriter(input, "UTF-8")) {
+            for (int i = 0; i < 4000; i++)
+                writer.println("@" + i + "\tnull\t" + (i % 2 * 1000 + random.nextDouble()) + "," + random.nextDouble());
+        }
+
+        MiniBatchKMeansClusterer clusterer = new MiniBatchKMeansClusterer(input.toPath(), 100, 200, 200, 2);
+        int                      iterations = clusterer.run(AlgorithmListener.NONE);
+        clusterer.writeLabelledFile(output.toPath());
+
+        assertTrue(iterations > 0 && iterations <= 200);
+        List<String> lines = Files.readAllLines(output.toPath());
+        assertEquals(4000, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String[] fields = lines.get(i).split("\t");
+            assertEquals("@" + i, fields[0]);
+            assertEquals(lines.get(i % 2).split("\t")[1], fields[1]);
+        }
+        assertTrue(!lines.get(0).split("\t")[1].equals(lines.get(1).split("\t")[1]));
+    }
+
+    /***
+     *  Seeds 8 centroids with each seeding among 50,000 instances on a 3x3 grid of duplicate points, so there are only
+     *  9 distinct instances, and again with the same seed.
+     *  @result Every centroid is an instance, the same seed gives the same centroids, and k-means++ and k-means|| never
+     *  choose an instance twice while there are distinct instances left.
+     */
+    @Test
+    public void centroidSeedingTest() {
+        int      n  = 50000;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = i % 3;
+            ys[i] = i / 3 % 3;
+        }
+        for (CentroidSeeding seeding : CentroidSeeding.values()) {
+            double[] centroidXs = new double[8];
+            double[] centroidYs = new double[8];
+            double[] againXs    = new double[8];
+            double[] againYs    = new double[8];
+            seeding.seed(xs, ys, n, 11, centroidXs, centroidYs);
+            seeding.seed(xs, ys, n, 11, againXs, againYs);
+
+            assertTrue(Arrays.equals(centroidXs, againXs) && Arrays.equals(centroidYs, againYs));
+            Set<Point2D> centroids = new HashSet<>();
+            for (int c = 0; c < 8; c++) {
+                assertTrue(centroidXs[c] >= 0 && centroidXs[c] <= 2 && centroidXs[c] == Math.rint(centroidXs[c]));
+                assertTrue(centroidYs[c] >= 0 && centroidYs[c] <= 2 && centroidYs[c] == Math.rint(centroidYs[c]));
+                centroids.add(new Point2D(centroidXs[c], centroidYs[c]));
+            }
+            if (seeding != CentroidSeeding.RANDOM)
+                assertEquals(8, centroids.size());
+        }
+    }
+
+    /***
+     *  Downsamples 10,000 points of two labels, all in one corner of a 10x10 pixel plot except for one outlier.
+     *  @result One point per label is kept in the crowded cell, the outlier is kept, and points outside the visible
+     *  bounds are dropped; data with fewer points than cells is returned as it is.
+     */
+    @Test
+    public void pointDownsamplerTest() {
+        int      n   = 10000;
+        double[] xs  = new double[n];
+        double[] ys  = new double[n];
+        int[]    ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i]  = 0.5;
+            ys[i]  = 0.5;
+            ids[i] = i % 2;
+        }
+        xs[n - 2] = 9.5; // an outlier
+        ys[n - 2] = 9.5;
+        xs[n - 1] = 20;  // out of view
+        ys[n - 1] = 20;
+
+        PointDownsampler downsampler = new PointDownsampler(1);
+        int[] kept = downsampler.downsample(xs, ys, ids, n, 2, 0, 10, 0, 10, 10, 10);
+
+        int keptCount = 0;
+        for (int id : kept)
+            if (id >= 0) keptCount++;
+        assertEquals(3, keptCount);
+        assertEquals(0, kept[0]);
+        assertEquals(1, kept[1]);
+        assertEquals(0, kept[n - 2]);
+        assertEquals(-1, kept[n - 1]);
+        assertTrue(downsampler.downsample(xs, ys, ids, 50, 2, 0, 10, 0, 10, 10, 10) == ids);
+    }
+
+    /***
+     *  Indexes 500 random points, with some duplicates, in a k-d tree and in a uniform grid, and queries both.
+     *  @result Both indexes find the same nearest point as a linear scan, lowest index first on ties, and report exactly
+     *  the points inside each query rectangle.
+     */
+    @Test
+    public void spatialIndexTest() {
+        Random   random = new Random(13);
+        int      n      = 500;
+        double[] xs     = new double[n];
+        double[] ys     = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = i % 10 == 9 ? xs[i - 1] : random.nextDouble() * 100;
+            ys[i] = i % 10 == 9 ? ys[i - 1] : random.nextDouble() * 50;
+        }
+        for (SpatialIndex index : Arrays.asList(new KDTree(xs, ys, n), new UniformGrid(xs, ys, n))) {
+            assertEquals(n, index.size());
+            for (int q = 0; q < 200; q++) {
+                double x    = random.nextDouble() * 120 - 10;
+                double y    = random.nextDouble() * 70 - 10;
+                int    best = 0;
+                for (int i = 1; i < n; i++)
+                    if (distance(xs[i], ys[i], x, y) < distance(xs[best], ys[best], x, y))
+                        best = i;
+                assertEquals(best, index.nearest(x, y));
+
+                double        minX     = x - 15;
+                double        minY     = y - 8;
+                Set<Integer>  expected = new HashSet<>();
+                Set<Integer>  found    = new HashSet<>();
+                for (int i = 0; i < n; i++)
+                    if (xs[i] >= minX && xs[i] <= x && ys[i] >= minY && ys[i] <= y)
+                        expected.add(i);
+                index.forEachInRange(minX, minY, x, y, found::add);
+                assertEquals(expected, found);
+            }
+        }
+    }
+
+    /***
+     *  Trains LogisticRegressionClassifier on two overlapping groups of 2000 instances, far from the origin, plus a few
+     *  unlabelled instances, and on instances with three labels.
+     *  @result The boundary converges well before the maximum number of iterations, crosses y = 500 within half a unit
+     *  of x = 1000, where the groups meet, puts over 95% of each label on its own side, and ignores the unlabelled
+     *  instances; three labels are rejected.
+     */
+    @Test
+    public void logisticRegressionClassifierTest() {
+        DataSet dataSet = new DataSet();
+        Random  random  = new Random(11);
+        for (int i = 0; i < 4000; i++)
+            dataSet.addInstance("@" + i, i % 2 == 0 ? "left" : "right",
+                                1000 + (i % 2 == 0 ? -4 : 4) + random.nextGaussian() * 1.5, 500 + random.nextGaussian() * 5);
+        for (int i = 0; i < 10; i++)
+            dataSet.addInstance("@unlabelled" + i, "null", 5000, 5000);
+
+        LogisticRegressionClassifier classifier = new LogisticRegressionClassifier(dataSet, 100, 1, true, null);
+        int iterations = classifier.run(AlgorithmListener.NONE);
+        assertTrue(iterations < 100);
+        assertEquals(Arrays.asList("left", "right"), classifier.getClassLabels());
+
+        ClassifierModel line    = classifier.getOutput();
+        int[]           correct = new int[2];
+        assertEquals(iterations, line.getIteration());
+        assertEquals(1000, (line.getCoefficient(2) - line.getCoefficient(1) * 500) / line.getCoefficient(0), 0.5);
+        for (int i = 0; i < 4000; i++) {
+            boolean below = line.getCoefficient(0) * dataSet.getX(i) + line.getCoefficient(1) * dataSet.getY(i)
+                            < line.getCoefficient(2);
+            if (below == (i % 2 == 0))
+                correct[i % 2]++;
+        }
+        assertTrue(correct[0] > 1900 && correct[1] > 1900);
+
+        dataSet.addInstance("@other", "other", 0, 0);
+        try {
+            new LogisticRegressionClassifier(dataSet, 100, 1, true, null).run(AlgorithmListener.NONE);
+            fail("three labels");
+        } catch (IllegalStateException expected) { }
+    }
+
+    /***
+     *  Sweeps KMeansClusterer and RandomClusterer over 2 to 5 clusters and two seeds, on three well separated groups.
+     *  @result There is a result per configuration, in order, over the instances as they were when the sweep was
+     *  created, with the swept dataset left unlabelled and the results read-only; the best result is k-means with 3
+     *  clusters, the same configuration run again scores the same, and so does the sweep run as an algorithm.
+     */
+    @Test
+    public void clusteringSweepTest() throws Exception {
+        DataSet dataSet = new DataSet();
+        Random  random  = new Random(5);
+        for (int i = 0; i < 300; i++)
+            dataSet.addInstance("@" + i, "original", i % 3 * 50 + random.nextGaussian(), i % 3 * 20 + random.nextGaussian());
+
+        ClusteringSweep                     sweep   = new ClusteringSweep(dataSet, 100);
+        dataSet.addInstance("@late", "original", 1e6, 1e6);
+        List<ClusteringSweep.Configuration> grid    = ClusteringSweep.grid(
+                Arrays.asList("algorithms.KMeansClusterer", "algorithms.RandomClusterer"), 2, 5, Arrays.asList(1L, 2L));
+        List<ClusteringSweep.Result>        results = sweep.run(grid, 4);
+
+        assertEquals(16, results.size());
+        for (int i = 0; i < grid.size(); i++) {
+            assertTrue(results.get(i).getConfiguration() == grid.get(i));
+            assertEquals(300, results.get(i).getDataSet().size());
+        }
+        assertEquals("original", dataSet.labelAt(0));
+        try {
+            results.get(0).getDataSet().addInstance("@new", "original", 0, 0);
+            fail("the instances of a result must not be movable");
+        } catch (UnsupportedOperationException expected) { }
+        try {
+            dataSet.withSharedInstances();
+            fail("only a snapshot may share its instances");
+        } catch (IllegalStateException expected) { }
+        ClusteringSweep.Result best = ClusteringSweep.best(results);
+        assertEquals("algorithms.KMeansClusterer", best.getConfiguration().getAlgorithmClassName());
+        assertEquals(3, best.getConfiguration().getNumberOfClusters());
+        assertTrue(best.getSilhouette() > 0.9);
+
+        ClusteringSweep.Result again = sweep.run(Collections.singletonList(best.getConfiguration()), 1).get(0);
+        assertEquals(best.getInertia(), again.getInertia(), 0);
+
+        List<List<ClusteringSweep.Result>> delivered = new ArrayList<>();
+        int iterations = sweep.asAlgorithm(grid, 4, delivered::add).run(AlgorithmListener.NONE);
+        assertEquals(16, iterations);
+        assertEquals(1, delivered.size());
+        assertEquals(best.getInertia(), ClusteringSweep.best(delivered.get(0)).getInertia(), 0);
+    }
+
+    /***
+     *  Submits an algorithm that counts its intervals to an AlgorithmExecutor, pauses it, resumes it and cancels it,
+     *  and submits another algorithm that runs to completion on the same worker.
+     *  @result A paused run makes no progress until resumed, a cancelled run completes with a CancellationException,
+     *  and the next run completes normally.
+     */
+    @Test
+    public void algorithmExecutorTest() throws Exception {
+        AlgorithmExecutor executor  = new AlgorithmExecutor(1, 1);
+        AtomicInteger     intervals = new AtomicInteger();
+        AlgorithmExecutor.Run run = executor.submit(new RandomClusterer(null, 1, 1, 2, 2, true, null) {
+            @Override
+            public void run() {
+                while (true) {
+                    intervals.incrementAndGet();
+                    AlgorithmExecutor.checkpoint();
+                }
+            }
+        });
+        while (intervals.get() < 100)
+            Thread.yield();
+        run.pause();
+        Thread.sleep(50);
+        int paused = intervals.get();
+        Thread.sleep(50);
+        assertTrue(intervals.get() <= paused + 1);
+        run.resume();
+        while (intervals.get() < paused + 100)
+            Thread.yield();
+        run.cancel();
+        try {
+            run.completion().get(5, TimeUnit.SECONDS);
+            fail("the run was cancelled");
+        } catch (CancellationException expected) { }
+
+        DataSet dataSet = new DataSet();
+        dataSet.addInstance("@a", "null", 0, 0);
+        dataSet.addInstance("@b", "null", 1, 1);
+        AlgorithmExecutor.Run next = executor.submit(new RandomClusterer(dataSet, 10, 1, 2, 2, true, null) {
+            @Override
+            public void run() { run(AlgorithmListener.NONE); }
+        });
+        next.completion().get(5, TimeUnit.SECONDS);
+        assertTrue(next.isDone());
+        executor.shutdown();
+    }
+
+    /***
+     *  Steps a thread through a StepGate: steps granted before it waits, several steps at once, opening the gate,
+     *  and cancelling it.
+     *  @result Exactly as many intervals pass as steps were granted, early steps are not lost, an open gate lets every
+     *  interval through, and a cancelled gate stops the waiting thread with a CancellationException.
+     */
+    @Test
+    public void stepGateTest() throws Exception {
+        StepGate      gate   = new StepGate();
+        AtomicInteger passed = new AtomicInteger();
+        Thread stepping = new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                gate.await();
+                passed.incrementAndGet();
+            }
+        });
+        gate.advance(2); // before the thread reaches the gate
+        stepping.start();
+        awaitCount(passed, 2);
+        Thread.sleep(50);
+        assertEquals(2, passed.get());
+        gate.advance(3);
+        awaitCount(passed, 5);
+        Thread.sleep(50);
+        assertEquals(5, passed.get());
+        gate.open();
+        stepping.join(5000);
+        assertEquals(10, passed.get());
+
+        StepGate cancelled = new StepGate();
+        boolean[] stopped  = new boolean[1];
+        Thread waiting = new Thread(() -> {
+            try {
+                cancelled.await();
+            } catch (CancellationException e) {
+                stopped[0] = true;
+            }
+        });
+        waiting.start();
+        Thread.sleep(50);
+        cancelled.cancel();
+        waiting.join(5000);
+        assertTrue(stopped[0]);
+    }
+
+    private static void awaitCount(AtomicInteger count, int expected) throws InterruptedException {
+        for (int i = 0; i < 500 && count.get() < expected; i++)
+            Thread.sleep(10);
+    }
+
+    private static double distance(double x1, double y1, double x2, double y2) {
+        return (x1 - x2) * (x1 - x2) + (y1 - y2) * (y1 - y2);
+    }
 
 }
@@ -0,0 +1,136 @@
+package algorithms;
+
+import javafx.scene.chart.XYChart;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Tests the {@link ChartBinder} on a bare list of series, as it would keep the series of a chart in sync, without a
+ * display.
+ */
+public class ChartBinderTest {
+
+    /* six instances at x = 0 to 5, labelled a, a, b, b, c and a */
+    private static DataSet dataSet() {
+        DataSet  dataSet = new DataSet();
+        String[] labels  = { "a", "a", "b", "b", "c", "a" };
+        for (int i = 0; i < labels.length; i++)
+            dataSet.addInstance("@" + i, labels[i], i, 10 * i);
+        return dataSet;
+    }
+
+    /* the x-coordinates of the points of the series, i.e., the instances it shows */
+    private static List<Integer> instancesOf(XYChart.Series<Number, Number> series) {
+        List<Integer> instances = new ArrayList<>();
+        for (XYChart.Data<Number, Number> point : series.getData())
+            instances.add(point.getXValue().intValue());
+        instances.sort(null);
+        return instances;
+    }
+
+    private static XYChart.Data<Number, Number> pointOf(List<XYChart.Series<Number, Number>> chartData, int instance) {
+        for (XYChart.Series<Number, Number> series : chartData)
+            for (XYChart.Data<Number, Number> point : series.getData())
+                if (point.getXValue().intValue() == instance)
+                    return point;
+        return null;
+    }
+
+    /***
+     *  Binds a snapshot that labels the instances with the ids of a, b and c, leaving the last instance unlabelled,
+     *  then a snapshot that moves one instance from a to b and labels the last instance a.
+     *  @result The first snapshot gives a series per label, named after it, holding the points of its instances at
+     *  their coordinates. The second snapshot moves only the two instances whose label changed: every series and
+     *  every point of an unchanged instance is the same object as before.
+     */
+    @Test
+    public void groupsAndMovesPointsTest() {
+        DataSet                              dataSet   = dataSet();
+        List<XYChart.Series<Number, Number>> chartData = new ArrayList<>();
+        ChartBinder                          binder    = new ChartBinder(chartData, 700, 500, dataSet);
+
+        binder.bind(new int[]{ 0, 0, 1, 1, 2, DataSet.NO_LABEL });
+        assertEquals(3, chartData.size());
+        assertEquals("a", chartData.get(0).getName());
+        assertEquals("b", chartData.get(1).getName());
+        assertEquals("c", chartData.get(2).getName());
+        assertEquals(Arrays.asList(0, 1), instancesOf(chartData.get(0)));
+        assertEquals(Arrays.asList(2, 3), instancesOf(chartData.get(1)));
+        assertEquals(Arrays.asList(4), instancesOf(chartData.get(2)));
+        assertEquals(30, pointOf(chartData, 3).getYValue().intValue());
+
+        List<XYChart.Series<Number, Number>> seriesBefore = new ArrayList<>(chartData);
+        List<XYChart.Data<Number, Number>>   pointsBefore = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+            pointsBefore.add(pointOf(chartData, i));
+
+        binder.bind(new int[]{ 0, 1, 1, 1, 2, 0 });
+        assertEquals(3, chartData.size());
+        for (int id = 0; id < 3; id++)
+            assertTrue(seriesBefore.get(id) == chartData.get(id));
+        assertEquals(Arrays.asList(0, 5), instancesOf(chartData.get(0)));
+        assertEquals(Arrays.asList(1, 2, 3), instancesOf(chartData.get(1)));
+        assertEquals(Arrays.asList(4), instancesOf(chartData.get(2)));
+        for (int i : new int[]{ 0, 2, 3, 4 })
+            assertTrue("instance " + i, pointsBefore.get(i) == pointOf(chartData, i));
+        assertTrue(pointsBefore.get(1) != pointOf(chartData, 1));
+    }
+
+    /***
+     *  Binds a snapshot to series that already hold a series named b, with a stale point, and an unrelated series.
+     *  @result The series named b is taken over, emptied of the stale point and filled with the instances of b; the
+     *  unrelated series is removed, and new series are added for a and c.
+     */
+    @Test
+    public void reusesSeriesByNameTest() {
+        List<XYChart.Series<Number, Number>> chartData = new ArrayList<>();
+        XYChart.Series<Number, Number>       shownB    = new XYChart.Series<>();
+        XYChart.Series<Number, Number>       other     = new XYChart.Series<>();
+        shownB.setName("b");
+        shownB.getData().add(new XYChart.Data<>(100, 100));
+        other.setName("Classifier");
+        chartData.add(other);
+        chartData.add(shownB);
+
+        new ChartBinder(chartData, 700, 500, dataSet()).bind(new int[]{ 0, 0, 1, 1, 2, 0 });
+        assertEquals(3, chartData.size());
+        assertTrue(!chartData.contains(other));
+        assertTrue(chartData.get(0) == shownB);
+        assertEquals(Arrays.asList(2, 3), instancesOf(shownB));
+        assertEquals("a", chartData.get(1).getName());
+        assertEquals("c", chartData.get(2).getName());
+    }
+
+    /***
+     *  Binds 1,000 instances of one label, on a diagonal, in a plot of 40 by 40 pixels, i.e., 5 by 5 cells of the
+     *  downsampler, then moves them all to another label.
+     *  @result Only the first instance in each cell the diagonal crosses gets a point; once moved, the first label's
+     *  series is empty and the second holds the points picked for it.
+     */
+    @Test
+    public void downsamplesDensePointsTest() {
+        DataSet dataSet = new DataSet();
+        for (int i = 0; i < 1000; i++)
+            dataSet.addInstance("@" + i, i == 0 ? "a" : "b", i, i);
+        List<XYChart.Series<Number, Number>> chartData = new ArrayList<>();
+        ChartBinder                          binder    = new ChartBinder(chartData, 40, 40, dataSet);
+
+        int[] allA = new int[1000];
+        binder.bind(allA);
+        assertEquals(1, chartData.size());
+        assertEquals(5, chartData.get(0).getData().size());
+
+        int[] allB = new int[1000];
+        Arrays.fill(allB, 1);
+        binder.bind(allB);
+        assertEquals(2, chartData.size());
+        assertEquals(0, chartData.get(0).getData().size());
+        assertEquals(5, chartData.get(1).getData().size());
+    }
+}
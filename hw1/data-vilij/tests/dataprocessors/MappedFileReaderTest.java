@@ -0,0 +1,116 @@
+package dataprocessors;
+
+import javafx.geometry.Point2D;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+
+/**
+ * Tests the {@link MappedFileReader} with windows of a few bytes, so that reading crosses many window boundaries.
+ */
+public class MappedFileReaderTest {
+
+    /* two-, three- and four-byte characters, the last one a surrogate pair, among single bytes and \r\n line endings */
+    private static final String TEXT = "aéb€c𝄞\r\ndéé\r\n€€𝄞!\r\n";
+
+    private static Path write(byte[] bytes) throws IOException {
+        File file = File.createTempFile("mapped", ".tsd");
+        file.deleteOnExit();
+        Files.write(file.toPath(), bytes);
+        return file.toPath();
+    }
+
+    /* everything the reader reads, a few characters at a time */
+    private static String readAll(MappedFileReader reader) throws IOException {
+        StringBuilder read   = new StringBuilder();
+        char[]        buffer = new char[3];
+        int           count;
+        while ((count = reader.read(buffer, 0, buffer.length)) != -1)
+            read.append(buffer, 0, count);
+        return read.toString();
+    }
+
+    /***
+     *  Reads text of one- to four-byte characters with \r\n line endings through windows of 4 to 12 bytes, so that
+     *  every kind of character is split between two windows at some window size.
+     *  @result The text read is the text written, whatever the window size, and the whole file is read.
+     */
+    @Test
+    public void multiByteAcrossWindowsTest() throws IOException {
+        Path path = write(TEXT.getBytes(StandardCharsets.UTF_8));
+        for (int windowSize = 4; windowSize <= 12; windowSize++) {
+            try (MappedFileReader reader = new MappedFileReader(path, windowSize)) {
+                assertEquals("window of " + windowSize + " bytes", TEXT, readAll(reader));
+                assertEquals(reader.size(), reader.position());
+            }
+        }
+    }
+
+    /***
+     *  Reads text with an invalid byte in the middle and a three-byte character cut short at the end of the file,
+     *  through windows of 4 to 12 bytes.
+     *  @result Each malformed sequence is read as a replacement character, and the rest of the text as written.
+     */
+    @Test
+    public void malformedInputReplacedTest() throws IOException {
+        byte[] valid    = "ab€cd".getBytes(StandardCharsets.UTF_8);
+        byte[] bytes    = new byte[valid.length + 1 + 2];
+        System.arraycopy(valid, 0, bytes, 0, 2);
+        bytes[2] = (byte) 0xFF;                                    // never valid in UTF-8
+        System.arraycopy(valid, 2, bytes, 3, valid.length - 2);
+        bytes[bytes.length - 2] = (byte) 0xE2;                     // the first two bytes of the euro sign
+        bytes[bytes.length - 1] = (byte) 0x82;
+        Path path = write(bytes);
+        for (int windowSize = 4; windowSize <= 12; windowSize++) {
+            try (MappedFileReader reader = new MappedFileReader(path, windowSize)) {
+                assertEquals("window of " + windowSize + " bytes", "ab�€cd�", readAll(reader));
+            }
+        }
+    }
+
+    /***
+     *  Processes a .tsd file with \r\n line endings and multi-byte labels through a reader with a window of 5 bytes.
+     *  @result Every instance is read with its label and location, without the \r at the end of its line.
+     */
+    @Test
+    public void tsdAcrossWindowsTest() throws Exception {
+        StringBuilder tsd = new StringBuilder();
+        for (int i = 0; i < 100; i++)
+            tsd.append("@é").append(i).append('\t').append(i % 2 == 0 ? "€" : "𝄞").append('\t')
+               .append(i).append(".5,").append(-i).append("\r\n");
+        Path path = write(tsd.toString().getBytes(StandardCharsets.UTF_8));
+
+        TSDProcessor processor = new TSDProcessor();
+        try (MappedFileReader reader = new MappedFileReader(path, 5)) {
+            processor.processReader(reader);
+        }
+        assertEquals(100, processor.getDataPoints().size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 0 ? "€" : "𝄞", processor.getDataLabels().get("@é" + i));
+            assertEquals(new Point2D(i + .5, -i), processor.getDataPoints().get("@é" + i));
+        }
+    }
+
+    /***
+     *  Opens a reader with a window too small to hold a four-byte character.
+     *  @result An IllegalArgumentException is thrown.
+     */
+    @Test
+    public void windowTooSmallTest() throws IOException {
+        Path path = write(TEXT.getBytes(StandardCharsets.UTF_8));
+        try {
+            new MappedFileReader(path, 3).close();
+            fail("a window of 3 bytes");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("3"));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ui;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Tests the points a {@link CanvasScatterChart} plots, by group, without a chart.
+ */
+public class PlottedPointsTest {
+
+    /***
+     *  Plots six points in three groups, of which the second has no points, with one point left out of every group.
+     *  @result Each group is bounded by its own points only; the empty group and the left out point count for none.
+     */
+    @Test
+    public void groupBoundsTest() {
+        double[]      xs     = { 1, 5, -3, 100, 2, 4 };
+        double[]      ys     = { 2, -1, 7, 100, 3, 3 };
+        int[]         groups = { 0, 0, 2, -1, 2, 0 };
+        PlottedPoints points = new PlottedPoints(3, xs, ys, groups, xs.length, new PointDownsampler(1));
+
+        assertEquals(6, points.size());
+        assertEquals(3, points.numberOfGroups());
+        assertTrue(points.hasPoints(0));
+        assertTrue(!points.hasPoints(1));
+        assertTrue(points.hasPoints(2));
+        assertEquals(1.0, points.minX(0));
+        assertEquals(5.0, points.maxX(0));
+        assertEquals(-1.0, points.minY(0));
+        assertEquals(3.0, points.maxY(0));
+        assertEquals(-3.0, points.minX(2));
+        assertEquals(2.0, points.maxX(2));
+        assertEquals(3.0, points.minY(2));
+        assertEquals(7.0, points.maxY(2));
+    }
+
+    /***
+     *  Picks the points to draw in a 10 by 10 pixel view of [0, 10] on both axes, out of 4 points in one group among 196
+     *  points left out: two on the same pixel, one on a pixel of its own and one outside of the view; then picks again
+     *  for the same view and for a wider view.
+     *  @result The first of the two points on the same pixel and the point on a pixel of its own are picked; the same
+     *  view gives the very same picks without picking again, and the wider view picks again, now including the point
+     *  that was outside.
+     */
+    @Test
+    public void pickPerViewTest() {
+        int      n      = 200;
+        double[] xs     = new double[n];
+        double[] ys     = new double[n];
+        int[]    groups = new int[n];
+        xs[0] = 1.1;  ys[0] = 1.1;
+        xs[1] = 1.2;  ys[1] = 1.2;  // on the same pixel as the first
+        xs[2] = 5.5;  ys[2] = 5.5;
+        xs[3] = 50;   ys[3] = 50;   // outside of the first view
+        Arrays.fill(groups, 4, n, -1); // more points than pixels, so that the points are picked
+        PlottedPoints points = new PlottedPoints(1, xs, ys, groups, n, new PointDownsampler(1));
+
+        int[] picked = points.pick(0, 10, 0, 10, 10, 10);
+        assertEquals(0, picked[0]);
+        assertEquals(-1, picked[1]);
+        assertEquals(0, picked[2]);
+        assertEquals(-1, picked[3]);
+        assertTrue(points.pick(0, 10, 0, 10, 10, 10) == picked);
+
+        int[] wider = points.pick(0, 100, 0, 100, 10, 10);
+        assertTrue(wider != picked);
+        assertEquals(0, wider[3]);
+    }
+}
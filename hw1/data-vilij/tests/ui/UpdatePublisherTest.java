@@ -0,0 +1,75 @@
+package ui;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Tests the pacing of an {@link UpdatePublisher} by handing it frames directly, without a JavaFX timer.
+ */
+public class UpdatePublisherTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    /***
+     *  Publishes three snapshots before the first frame, then publishes more between frames that come faster and
+     *  slower than the frame rate of 10 frames per second.
+     *  @result Only the newest snapshot is rendered at each frame, the older ones are dropped; a frame with nothing new
+     *  renders nothing, and a new snapshot waits until a whole frame has passed since the last one was rendered.
+     */
+    @Test
+    public void latestSnapshotPerFrameTest() {
+        List<Integer>            rendered  = new ArrayList<>();
+        UpdatePublisher<Integer> publisher = new UpdatePublisher<>(10, rendered::add);
+
+        assertTrue(!publisher.frame(0));
+        publisher.publish(1);
+        publisher.publish(2);
+        publisher.publish(3);
+        assertTrue(publisher.frame(1 * MILLIS));
+        assertEquals(Arrays.asList(3), rendered);
+
+        assertTrue(!publisher.frame(200 * MILLIS));  // nothing new
+        publisher.publish(4);
+        publisher.publish(5);
+        assertTrue(publisher.frame(201 * MILLIS));   // a whole frame has passed since 3 was rendered
+        assertEquals(Arrays.asList(3, 5), rendered);
+
+        publisher.publish(6);
+        assertTrue(!publisher.frame(250 * MILLIS));  // too soon after 5
+        publisher.publish(7);
+        assertTrue(!publisher.frame(300 * MILLIS));  // still less than 100 ms after 5
+        assertTrue(publisher.frame(301 * MILLIS));
+        assertEquals(Arrays.asList(3, 5, 7), rendered);
+    }
+
+    /***
+     *  Publishes 200,000 increasing snapshots from another thread while frames are handed to the publisher as fast as
+     *  possible, and hands it one more frame once the publishing thread is done.
+     *  @result The rendered snapshots only ever increase, and the last one rendered is the last one published.
+     */
+    @Test
+    public void concurrentPublishTest() throws InterruptedException {
+        List<Integer>            rendered  = new ArrayList<>();
+        UpdatePublisher<Integer> publisher = new UpdatePublisher<>(1e6, rendered::add);
+        Thread algorithm = new Thread(() -> {
+            for (int i = 1; i <= 200_000; i++)
+                publisher.publish(i);
+        });
+        algorithm.start();
+        long now = 0;
+        while (algorithm.isAlive())
+            publisher.frame(now += MILLIS);
+        algorithm.join();
+        publisher.frame(now + MILLIS);
+
+        for (int i = 1; i < rendered.size(); i++)
+            assertTrue(rendered.get(i - 1) < rendered.get(i));
+        assertEquals(200_000, (int) rendered.get(rendered.size() - 1));
+    }
+}